@@ -0,0 +1,74 @@
+package uno;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the legality test, Card.canPlayOn(), over every pair of card
+ * types and every called color. One operation is a single legality test.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CardBenchmark {
+
+    private static final int NUM_PAIRS = Card.NUM_TYPES * Card.NUM_TYPES;
+    private static final UnoPlayer.Color[] COLORS = UnoPlayer.Color.values();
+
+    private Card[] cards;
+    private Card[] upCards;
+    private UnoPlayer.Color[] calledColors;
+
+    @Setup
+    public void setUp() {
+        cards = new Card[NUM_PAIRS];
+        upCards = new Card[NUM_PAIRS];
+        calledColors = new UnoPlayer.Color[NUM_PAIRS];
+        int i = 0;
+        for (int card = 0; card < Card.NUM_TYPES; card++) {
+            for (int upCard = 0; upCard < Card.NUM_TYPES; upCard++) {
+                cards[i] = Card.of(card);
+                upCards[i] = Card.of(upCard);
+                calledColors[i] = COLORS[i % COLORS.length];
+                i++;
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_PAIRS)
+    public int canPlayOn() {
+        int playable = 0;
+        for (int i = 0; i < NUM_PAIRS; i++) {
+            if (cards[i].canPlayOn(upCards[i], calledColors[i])) {
+                playable++;
+            }
+        }
+        return playable;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_PAIRS)
+    public int canPlayOnIds() {
+        int playable = 0;
+        for (int i = 0; i < NUM_PAIRS; i++) {
+            if (CardCodes.canPlayOn(cards[i].getId(), upCards[i].getId(), calledColors[i])) {
+                playable++;
+            }
+        }
+        return playable;
+    }
+}
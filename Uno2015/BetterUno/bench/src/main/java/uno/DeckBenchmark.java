@@ -0,0 +1,73 @@
+package uno;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the Deck operations a game performs: shuffling the draw pile,
+ * drawing from it, and remixing the discard pile back into it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DeckBenchmark {
+
+    private Deck deck;
+
+    @Setup
+    public void setUp() {
+        deck = new Deck(new SplittableRandom(42));
+    }
+
+    /**
+     * Shuffle a full deck.
+     */
+    @Benchmark
+    public Deck shuffle() {
+        deck.shuffle();
+        return deck;
+    }
+
+    /**
+     * Draw every card of a full deck, discarding each one, and remix the
+     * discards into a fresh draw pile. One operation is DECK_SIZE draws and
+     * discards plus one remix (which includes a shuffle).
+     */
+    @Benchmark
+    public void drawAllAndRemix(Blackhole bh) throws EmptyDeckException {
+        while (!deck.isEmpty()) {
+            Card c = deck.draw();
+            bh.consume(c);
+            deck.discard(c);
+        }
+        deck.remix();
+    }
+
+    /**
+     * The same cycle as drawAllAndRemix() through the card id methods, which
+     * is how the engine core moves cards.
+     */
+    @Benchmark
+    public void drawAllIdsAndRemix(Blackhole bh) throws EmptyDeckException {
+        while (!deck.isEmpty()) {
+            int id = deck.drawId();
+            bh.consume(id);
+            deck.discardId(id);
+        }
+        deck.remix();
+    }
+}
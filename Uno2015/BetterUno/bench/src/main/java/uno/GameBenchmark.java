@@ -0,0 +1,102 @@
+package uno;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * Benchmarks of whole games, dealt and played to the end, either on a new
+ * Game each time or on one Game that is reset between games, or from a
+ * position in mid-game on a fork. One operation is one game, so the score is in
+ * games per second, and with -prof gc the gc.alloc.rate.norm figure is the
+ * number of bytes allocated per game.</p>
+ * <p>
+ * Every game gets the next seed of a fixed sequence, so runs of the benchmark
+ * play the same games.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    /**
+     * The strategy every seat plays, as the prefix of its _UnoPlayer class
+     * (pass -p player=<prefix> to benchmark another strategy).
+     */
+    @Param({"TeamNumeroUno"})
+    public String player;
+
+    /**
+     * The number of players in each game.
+     */
+    @Param({"4"})
+    public int numPlayers;
+
+    private final ArrayList<String> playerNames = new ArrayList<>();
+    private final ArrayList<String> playerClasses = new ArrayList<>();
+    private long gameIndex;
+    private Game reused;
+    private Game midGame;
+    private Game playout;
+    private final SplittableRandom playoutRand = new SplittableRandom(0);
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < numPlayers; i++) {
+            playerNames.add(player + i);
+            playerClasses.add("uno." + player + "_UnoPlayer");
+        }
+        reused = new Game(playerNames, playerClasses, new SplittableRandom(0));
+        midGame = new Game(playerNames, playerClasses, new SplittableRandom(1));
+        for (int i = 0; i < 2 * numPlayers && !midGame.isOver(); i++) {
+            midGame.playTurn();
+        }
+        playout = midGame.fork(new SplittableRandom(2));
+    }
+
+    /**
+     * Deal and play one game.
+     */
+    @Benchmark
+    public Victory playGame() {
+        Game g = new Game(playerNames, playerClasses,
+                new SplittableRandom(UnoSimulation.seedForGame(0, gameIndex++)));
+        return g.play();
+    }
+
+    /**
+     * Reset one long-lived Game and play it, the way each worker of
+     * UnoSimulation plays its games.
+     */
+    @Benchmark
+    public Victory resetAndPlayGame() {
+        reused.reset(UnoSimulation.seedForGame(0, gameIndex++));
+        return reused.play();
+    }
+
+    /**
+     * Copy a game in progress onto a fork, with the cards hidden from the
+     * current player dealt out afresh, and play it out: one playout of a
+     * search strategy.
+     */
+    @Benchmark
+    public Victory copyAndPlayOut() {
+        playout.copyFrom(midGame, playoutRand, midGame.getCurrPosition());
+        return playout.play();
+    }
+}
@@ -0,0 +1,70 @@
+package uno;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the GameState a player is handed: building one for a game,
+ * bringing the game's own GameState up to date after the game has changed,
+ * and taking a snapshot of it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameStateBenchmark {
+
+    private Game game;
+
+    @Setup
+    public void setUp() {
+        ArrayList<String> playerNames = new ArrayList<>();
+        ArrayList<String> playerClasses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            playerNames.add("TeamNumeroUno" + i);
+            playerClasses.add("uno.TeamNumeroUno_UnoPlayer");
+        }
+        game = new Game(playerNames, playerClasses, new SplittableRandom(42));
+        // Put some cards on the discard pile, as there would be mid-game.
+        for (int i = 0; i < 20; i++) {
+            game.getDeck().discard(game.draw());
+        }
+    }
+
+    /**
+     * Construct a GameState and read it once, which fills it in.
+     */
+    @Benchmark
+    public int[] construct() {
+        return new GameState(game).getNumCardsInHandsOfUpcomingPlayers();
+    }
+
+    /**
+     * Read the game's GameState after the game has marked it stale, which is
+     * what happens once per turn.
+     */
+    @Benchmark
+    public int[] refresh() {
+        GameState state = game.getGameState();
+        state.invalidate();
+        return state.getNumCardsInHandsOfUpcomingPlayers();
+    }
+
+    @Benchmark
+    public GameState snapshot() {
+        return game.getGameState().snapshot();
+    }
+}
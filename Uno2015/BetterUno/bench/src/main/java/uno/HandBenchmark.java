@@ -0,0 +1,71 @@
+package uno;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of Hand.play(), the engine's dispatch of a turn to the strategy
+ * behind a hand: asking the strategy for a card, checking the play and
+ * removing the card from the hand. The benchmark cycles through the opening
+ * turns of a set of freshly dealt games, and puts each played card back into
+ * its hand so the hands keep their size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandBenchmark {
+
+    private static final int NUM_GAMES = 64;
+
+    /**
+     * The strategy every seat plays, as the prefix of its _UnoPlayer class
+     * (pass -p player=<prefix> to benchmark another strategy).
+     */
+    @Param({"TeamNumeroUno"})
+    public String player;
+
+    private Game[] games;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ArrayList<String> playerNames = new ArrayList<>();
+        ArrayList<String> playerClasses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            playerNames.add(player + i);
+            playerClasses.add("uno." + player + "_UnoPlayer");
+        }
+        games = new Game[NUM_GAMES];
+        for (int i = 0; i < NUM_GAMES; i++) {
+            games[i] = new Game(playerNames, playerClasses,
+                    new SplittableRandom(UnoSimulation.seedForGame(0, i)));
+        }
+    }
+
+    @Benchmark
+    public Card play() {
+        Game g = games[next];
+        next = (next + 1) % NUM_GAMES;
+        Hand hand = g.getPlayerAt(g.getCurrPosition());
+        Card played = hand.play(g);
+        if (played != null) {
+            hand.addCard(played);
+        }
+        return played;
+    }
+}
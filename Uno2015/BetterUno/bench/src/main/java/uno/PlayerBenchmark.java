@@ -0,0 +1,69 @@
+package uno;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the TeamNumeroUno strategy's decisions on the hands of
+ * testCases.txt. Each hand is passed as a HandView, as the engine passes it,
+ * and each operation is one decision on the next hand of the file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerBenchmark {
+
+    private TeamNumeroUno_UnoPlayer player;
+    private GameState state;
+    private HandView[] hands;
+    private Card[] upCards;
+    private UnoPlayer.Color[] calledColors;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<TestCases.Case> cases = TestCases.load();
+        hands = new HandView[cases.size()];
+        upCards = new Card[cases.size()];
+        calledColors = new UnoPlayer.Color[cases.size()];
+        for (int i = 0; i < cases.size(); i++) {
+            TestCases.Case c = cases.get(i);
+            hands[i] = HandView.of(c.hand);
+            upCards[i] = c.upCard;
+            calledColors[i] = c.calledColor;
+        }
+        player = new TeamNumeroUno_UnoPlayer();
+        state = new GameState();
+    }
+
+    private int nextCase() {
+        int i = next;
+        next = (next + 1) % hands.length;
+        return i;
+    }
+
+    @Benchmark
+    public int play() {
+        int i = nextCase();
+        return player.play(hands[i], upCards[i], calledColors[i], state);
+    }
+
+    @Benchmark
+    public UnoPlayer.Color callColor() {
+        return player.callColor(hands[nextCase()]);
+    }
+}
@@ -0,0 +1,52 @@
+package uno;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * The hands of testCases.txt, loaded once for the benchmarks that want
+ * realistic hands rather than made-up ones. The file is read from the path in
+ * the uno.testCases system property, or from ../testCases.txt (the copy next
+ * to the engine sources) if that is not set.</p>
+ * <p>
+ * The file is read with the TestCaseReader that TestCaseProcessor uses.</p>
+ */
+final class TestCases {
+
+    /**
+     * One test case: a hand, the up card and the called color.
+     */
+    static final class Case {
+
+        final List<Card> hand;
+        final Card upCard;
+        final UnoPlayer.Color calledColor;
+
+        Case(List<Card> hand, Card upCard, UnoPlayer.Color calledColor) {
+            this.hand = hand;
+            this.upCard = upCard;
+            this.calledColor = calledColor;
+        }
+    }
+
+    private TestCases() {
+    }
+
+    /**
+     * Read every test case of the test case file.
+     */
+    static List<Case> load() throws IOException {
+        String filename = System.getProperty("uno.testCases", "../testCases.txt");
+        List<Case> cases = new ArrayList<>();
+        TestCase testCase = new TestCase();
+        try (TestCaseReader reader = new TestCaseReader(Paths.get(filename))) {
+            while (reader.next(testCase)) {
+                cases.add(new Case(testCase.handCards(), Card.of(testCase.upCard), testCase.calledColor));
+            }
+        }
+        return cases;
+    }
+}
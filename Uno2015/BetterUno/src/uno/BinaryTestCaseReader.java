@@ -0,0 +1,126 @@
+package uno;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import uno.UnoPlayer.Color;
+
+/**
+ * <p>
+ * Reads test cases from a file in the binary test case format, which
+ * BinaryTestCaseWriter writes. The file starts with the bytes of MAGIC, and
+ * each case follows the one before it:</p>
+ * <ul>
+ * <li>the number of cards in the hand, one byte;</li>
+ * <li>the hand, one byte (the card id, see CardCodes) per card;</li>
+ * <li>the up card, one byte;</li>
+ * <li>the called color, one byte (its ordinal);</li>
+ * <li>the valid plays, as a bitmask over hand indexes of (handSize + 7) / 8
+ * bytes, lowest indexes first. No bits set means -1 is the only valid
+ * play.</li>
+ * </ul>
+ * <p>
+ * The file is memory-mapped, a window of up to WINDOW_SIZE bytes at a time,
+ * so a file of any size is read without copying it onto the heap, and reading
+ * a case allocates nothing.</p>
+ *
+ * @since 3.0
+ */
+final class BinaryTestCaseReader implements TestCaseSource {
+
+    /**
+     * The bytes a binary test case file starts with: "UNOTC" and the version
+     * of the format.
+     */
+    static final byte[] MAGIC = {'U', 'N', 'O', 'T', 'C', 1};
+
+    private static final long WINDOW_SIZE = 1L << 30;
+    // The most bytes one case can take up.
+    private static final int MAX_CASE_SIZE = 3 + TestCase.MAX_HAND_SIZE + TestCase.MAX_HAND_SIZE / 8;
+    private static final Color[] COLORS = Color.values();
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    /**
+     * Open the binary test case file passed for reading.
+     *
+     * @throws IOException If the file cannot be read or is not in the binary
+     * format
+     */
+    BinaryTestCaseReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        fileSize = channel.size();
+        map(0);
+        for (byte b : MAGIC) {
+            if (!window.hasRemaining() || window.get() != b) {
+                channel.close();
+                throw new IOException(file + " is not a binary test case file");
+            }
+        }
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, fileSize - start));
+    }
+
+    @Override
+    public boolean next(TestCase into) throws IOException {
+        if (window.remaining() < MAX_CASE_SIZE && windowStart + window.limit() < fileSize) {
+            map(windowStart + window.position());
+        }
+        if (!window.hasRemaining()) {
+            return false;
+        }
+        try {
+            int handSize = window.get() & 0xFF;
+            if (handSize > TestCase.MAX_HAND_SIZE) {
+                throw error("hand has more than " + TestCase.MAX_HAND_SIZE + " cards");
+            }
+            into.handSize = handSize;
+            window.get(into.hand, 0, handSize);
+            for (int i = 0; i < handSize; i++) {
+                checkCard(into.hand[i]);
+            }
+            into.upCard = checkCard(window.get());
+            int color = window.get();
+            if (color < 0 || color >= COLORS.length) {
+                throw error("no such color: " + color);
+            }
+            into.calledColor = COLORS[color];
+            long validPlays = 0;
+            for (int i = 0; i < handSize; i += 8) {
+                validPlays |= (window.get() & 0xFFL) << i;
+            }
+            if (handSize < 64 && validPlays >>> handSize != 0) {
+                throw error("valid play is not in the hand");
+            }
+            into.validPlays = validPlays;
+        } catch (BufferUnderflowException e) {
+            throw error("truncated case");
+        }
+        return true;
+    }
+
+    private int checkCard(int id) throws IOException {
+        if (id < 0 || id >= Card.NUM_TYPES) {
+            throw error("no such card: " + id);
+        }
+        return id;
+    }
+
+    private IOException error(String message) {
+        return new IOException("Byte " + (windowStart + window.position()) + ": " + message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
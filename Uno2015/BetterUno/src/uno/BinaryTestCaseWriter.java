@@ -0,0 +1,65 @@
+package uno;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes test cases to a file in the binary test case format (see
+ * BinaryTestCaseReader), through one fixed buffer.
+ *
+ * @since 3.0
+ */
+final class BinaryTestCaseWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /**
+     * Create (or replace) the file passed and write the format's header to
+     * it.
+     */
+    BinaryTestCaseWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        buffer.put(BinaryTestCaseReader.MAGIC);
+    }
+
+    /**
+     * Append the case passed to the file.
+     */
+    void write(TestCase testCase) throws IOException {
+        if (buffer.remaining() < 3 + testCase.handSize + TestCase.MAX_HAND_SIZE / 8) {
+            flush();
+        }
+        buffer.put((byte) testCase.handSize);
+        buffer.put(testCase.hand, 0, testCase.handSize);
+        buffer.put((byte) testCase.upCard);
+        buffer.put((byte) testCase.calledColor.ordinal());
+        for (int i = 0; i < testCase.handSize; i += 8) {
+            buffer.put((byte) (testCase.validPlays >>> i));
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -16,25 +16,59 @@ import static uno.UnoPlayer.Rank.*;
  * a loser who gets stuck with it) and how it should act during game play
  * (whether it permits the player to change the color, what effect it has on the
  * game state, etc.)</p>
+ * <p>
+ * Cards are immutable. There are only NUM_TYPES distinct types of card in a
+ * standard deck, and the static of() methods return one shared, canonical
+ * instance of each, so a deck (or a hand) holding two "red 7"s holds the same
+ * Card object twice. Cards built with the constructors are equal (but not
+ * identical) to the canonical ones.</p>
  *
  * @since 1.0
  */
-public class Card {
+public final class Card {
+
+    /**
+     * The number of distinct types of card: a 0-9, Reverse, Skip and Draw Two
+     * of each of the four colors, plus the Wild and the Wild Draw Four.
+     */
+    public static final int NUM_TYPES = 54;
+
+    private static final int TYPES_PER_COLOR = 13;
+    private static final Card[] TYPES = new Card[NUM_TYPES];
+
+    static {
+        Color[] colors = {Color.RED, Color.YELLOW, Color.GREEN, Color.BLUE};
+        for (Color c : colors) {
+            for (int n = 0; n <= 9; n++) {
+                intern(new Card(c, NUMBER, n));
+            }
+            intern(new Card(c, REVERSE, -1));
+            intern(new Card(c, SKIP, -1));
+            intern(new Card(c, DRAW_TWO, -1));
+        }
+        intern(new Card(Color.NONE, WILD, -1));
+        intern(new Card(Color.NONE, WILD_D4, -1));
+    }
+
+    private static void intern(Card c) {
+        TYPES[c.id] = c;
+    }
 
-    private Color color;
-    private Rank rank;
-    private int number;
+    private final Color color;
+    private final Rank rank;
+    private final int number;
+    private final int id;
 
     /**
      * Constructor for non-number cards (skips, wilds, etc.)
      *
      * @param color The color of the card
      * @param rank The type of the card
+     * @throws IllegalArgumentException If no card in a standard deck has that
+     * color and rank
      */
     public Card(Color color, Rank rank) {
-        this.color = color;
-        this.rank = rank;
-        this.number = -1;
+        this(color, rank, -1);
     }
 
     /**
@@ -42,11 +76,11 @@ public class Card {
      *
      * @param color The color of the card
      * @param number The number on the card
+     * @throws IllegalArgumentException If the number is not from 0 to 9, or
+     * the color is Color.NONE
      */
     public Card(Color color, int number) {
-        this.color = color;
-        this.rank = NUMBER;
-        this.number = number;
+        this(color, NUMBER, number);
     }
 
     /**
@@ -55,11 +89,100 @@ public class Card {
      * @param color The color of the card
      * @param rank The type of the card
      * @param number The number on the card
+     * @throws IllegalArgumentException If no card in a standard deck has that
+     * combination of color, rank and number
      */
     public Card(Color color, Rank rank, int number) {
         this.color = color;
         this.rank = rank;
         this.number = number;
+        this.id = typeId(color, rank, number);
+        if (id < 0) {
+            throw new IllegalArgumentException("No such card: " + color + " " + rank + " " + number);
+        }
+    }
+
+    /**
+     * Returns the canonical instance of the non-number card (skip, wild, etc.)
+     * of the given color and rank.
+     *
+     * @param color The color of the card (Color.NONE for wilds)
+     * @param rank The type of the card
+     * @return The shared Card object of that type
+     */
+    public static Card of(Color color, Rank rank) {
+        return of(color, rank, -1);
+    }
+
+    /**
+     * Returns the canonical instance of the number card of the given color and
+     * number.
+     *
+     * @param color The color of the card
+     * @param number The number on the card
+     * @return The shared Card object of that type
+     */
+    public static Card of(Color color, int number) {
+        return of(color, NUMBER, number);
+    }
+
+    /**
+     * Returns the canonical instance of the card with the given state.
+     *
+     * @param color The color of the card
+     * @param rank The type of the card
+     * @param number The number on the card
+     * @return The shared Card object of that type
+     * @throws IllegalArgumentException If no card in a standard deck has that
+     * combination of color, rank and number
+     */
+    public static Card of(Color color, Rank rank, int number) {
+        int id = typeId(color, rank, number);
+        if (id < 0) {
+            throw new IllegalArgumentException("No such card: " + color + " " + rank + " " + number);
+        }
+        return TYPES[id];
+    }
+
+    /**
+     * Returns the canonical instance of the card with the given type id.
+     *
+     * @param id A type id, from 0 to NUM_TYPES-1
+     * @return The shared Card object of that type
+     * @see getId
+     */
+    public static Card of(int id) {
+        return TYPES[id];
+    }
+
+    /**
+     * Computes the type id of a (color, rank, number) triple, or returns -1 if
+     * no card in a standard deck has that combination. Within each color the
+     * ids run through the numbers 0-9 followed by Reverse, Skip and Draw Two.
+     */
+    private static int typeId(Color color, Rank rank, int number) {
+        if (rank == WILD || rank == WILD_D4) {
+            if (color != Color.NONE) {
+                return -1;
+            }
+            return rank == WILD ? 4 * TYPES_PER_COLOR : 4 * TYPES_PER_COLOR + 1;
+        }
+        if (color == null || color == Color.NONE || rank == null) {
+            return -1;
+        }
+        int base = color.ordinal() * TYPES_PER_COLOR;
+        switch (rank) {
+            case NUMBER:
+                return number >= 0 && number <= 9 ? base + number : -1;
+            case REVERSE:
+                return base + 10;
+            case SKIP:
+                return base + 11;
+            case DRAW_TWO:
+                return base + 12;
+            default:
+                return -1;
+        }
     }
 
     /**
@@ -168,6 +291,19 @@ public class Card {
      * @return Whether the card is a legal move
      */
     public boolean canPlayOn(Card c, UnoPlayer.Color calledColor) {
+        if (calledColor != null) {
+            return CardCodes.canPlayOn(id, c.id, calledColor);
+        }
+        return canPlayOnByRules(c, calledColor);
+    }
+
+    /**
+     * Evaluates the rules of play for canPlayOn() directly. This is the
+     * definition the precomputed tables in CardCodes are filled from, and the
+     * fallback when the called color passed is null, which the tables do not
+     * cover.
+     */
+    boolean canPlayOnByRules(Card c, UnoPlayer.Color calledColor) {
         return rank == WILD
                 || rank == WILD_D4
                 || color == c.color
@@ -262,4 +398,35 @@ public class Card {
     public int getNumber() {
         return number;
     }
+
+    /**
+     * Returns the type id of this card, a number from 0 to NUM_TYPES-1 that is
+     * shared by all cards of the same color, rank and number. Card.of(id) maps
+     * the id back to the canonical Card of that type.
+     *
+     * @return The type id of this card
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Two cards are equal when they have the same color, rank and number.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Card)) {
+            return false;
+        }
+        Card c = (Card) o;
+        return color == c.color && rank == c.rank && number == c.number;
+    }
+
+    @Override
+    public int hashCode() {
+        return (color.ordinal() * 31 + rank.ordinal()) * 31 + number;
+    }
 }
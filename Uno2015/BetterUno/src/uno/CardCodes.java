@@ -0,0 +1,127 @@
+package uno;
+
+import uno.UnoPlayer.Color;
+import uno.UnoPlayer.Rank;
+
+/**
+ * <p>
+ * Lookup tables for the compact encoding of cards used by the engine core. A
+ * card is encoded as its type id (see Card.getId()), a number from 0 to
+ * Card.NUM_TYPES-1 that fits in a byte. Decks, hands and the discard pile store
+ * these ids in primitive arrays, and every question the engine asks about a
+ * card during a game is answered by an array lookup into the tables below.</p>
+ * <p>
+ * Because there are fewer than 64 card types, a set of card types fits in a
+ * single long, with bit i standing for the type with id i. Legality is stored
+ * that way: for every (up card, called color) pair there is a mask of the card
+ * types that may be played on it, so finding the playable cards in a hand is a
+ * single AND of that mask with the hand's own mask of types held (see
+ * HandView).</p>
+ * <p>
+ * The tables are filled once, from the Card methods that define the rules, so
+ * the two representations can never disagree.</p>
+ *
+ * @since 3.0
+ */
+public final class CardCodes {
+
+    private static final int NUM_COLORS = Color.values().length;
+
+    private static final Color[] COLOR = new Color[Card.NUM_TYPES];
+    private static final Rank[] RANK = new Rank[Card.NUM_TYPES];
+    private static final int[] NUMBER = new int[Card.NUM_TYPES];
+    private static final int[] FORFEIT_COST = new int[Card.NUM_TYPES];
+    private static final boolean[] FOLLOWED_BY_CALL = new boolean[Card.NUM_TYPES];
+    private static final long[] PLAYABLE = new long[Card.NUM_TYPES * NUM_COLORS];
+    private static final long[] COLOR_MASK = new long[NUM_COLORS];
+    private static final long[] RANK_MASK = new long[Rank.values().length];
+
+    static {
+        for (int id = 0; id < Card.NUM_TYPES; id++) {
+            Card c = Card.of(id);
+            COLOR[id] = c.getColor();
+            RANK[id] = c.getRank();
+            NUMBER[id] = c.getNumber();
+            FORFEIT_COST[id] = c.forfeitCost();
+            FOLLOWED_BY_CALL[id] = c.followedByCall();
+            COLOR_MASK[c.getColor().ordinal()] |= bit(id);
+            RANK_MASK[c.getRank().ordinal()] |= bit(id);
+            for (int up = 0; up < Card.NUM_TYPES; up++) {
+                for (Color called : Color.values()) {
+                    if (c.canPlayOnByRules(Card.of(up), called)) {
+                        PLAYABLE[up * NUM_COLORS + called.ordinal()] |= bit(id);
+                    }
+                }
+            }
+        }
+    }
+
+    private CardCodes() {
+    }
+
+    /**
+     * Returns the mask with only the bit for the card with the given id set.
+     */
+    public static long bit(int card) {
+        return 1L << card;
+    }
+
+    /**
+     * Returns true only if the card with the first id can legally be played on
+     * the up card with the second id. See Card.canPlayOn().
+     */
+    public static boolean canPlayOn(int card, int upCard, Color calledColor) {
+        return (PLAYABLE[upCard * NUM_COLORS + calledColor.ordinal()] & bit(card)) != 0;
+    }
+
+    /**
+     * Returns the mask of all card types that can legally be played on the up
+     * card with the given id.
+     */
+    public static long playableMask(int upCard, Color calledColor) {
+        return PLAYABLE[upCard * NUM_COLORS + calledColor.ordinal()];
+    }
+
+    /**
+     * Returns the mask of all card types of the given color (Color.NONE gives
+     * the wild cards).
+     */
+    public static long colorMask(Color color) {
+        return COLOR_MASK[color.ordinal()];
+    }
+
+    /**
+     * Returns the mask of all card types of the given rank.
+     */
+    public static long rankMask(Rank rank) {
+        return RANK_MASK[rank.ordinal()];
+    }
+
+    /**
+     * Returns the forfeit cost of the card with the given id. See
+     * Card.forfeitCost().
+     */
+    public static int forfeitCost(int card) {
+        return FORFEIT_COST[card];
+    }
+
+    /**
+     * Returns true only if playing the card with the given id is followed by a
+     * color call. See Card.followedByCall().
+     */
+    public static boolean followedByCall(int card) {
+        return FOLLOWED_BY_CALL[card];
+    }
+
+    public static Color getColor(int card) {
+        return COLOR[card];
+    }
+
+    public static Rank getRank(int card) {
+        return RANK[card];
+    }
+
+    public static int getNumber(int card) {
+        return NUMBER[card];
+    }
+}
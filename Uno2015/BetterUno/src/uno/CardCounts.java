@@ -0,0 +1,63 @@
+package uno;
+
+import java.util.Arrays;
+import uno.UnoPlayer.Color;
+import uno.UnoPlayer.Rank;
+
+/**
+ * Running counts of a pile of cards by type, by color and by rank, kept up to
+ * date one card at a time so that each count can be read in constant time.
+ *
+ * @since 3.0
+ */
+class CardCounts {
+
+    private final int[] byType = new int[Card.NUM_TYPES];
+    private final int[] byColor = new int[Color.values().length];
+    private final int[] byRank = new int[Rank.values().length];
+    private int total;
+
+    CardCounts() {
+    }
+
+    CardCounts(CardCounts original) {
+        copyFrom(original);
+    }
+
+    void copyFrom(CardCounts original) {
+        System.arraycopy(original.byType, 0, byType, 0, byType.length);
+        System.arraycopy(original.byColor, 0, byColor, 0, byColor.length);
+        System.arraycopy(original.byRank, 0, byRank, 0, byRank.length);
+        total = original.total;
+    }
+
+    void add(int id) {
+        byType[id]++;
+        byColor[CardCodes.getColor(id).ordinal()]++;
+        byRank[CardCodes.getRank(id).ordinal()]++;
+        total++;
+    }
+
+    void clear() {
+        Arrays.fill(byType, 0);
+        Arrays.fill(byColor, 0);
+        Arrays.fill(byRank, 0);
+        total = 0;
+    }
+
+    int ofType(int id) {
+        return byType[id];
+    }
+
+    int of(Color color) {
+        return byColor[color.ordinal()];
+    }
+
+    int of(Rank rank) {
+        return byRank[rank.ordinal()];
+    }
+
+    int total() {
+        return total;
+    }
+}
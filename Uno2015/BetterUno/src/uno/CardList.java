@@ -0,0 +1,50 @@
+package uno;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * <p>
+ * A read-only List of Cards backed directly by an array of card ids (see
+ * CardCodes). Hands and the discard pile keep their cards as ids, and hand them
+ * to UnoPlayers through a CardList so that the Card-based API keeps working
+ * without copying or allocating: get() simply returns the canonical Card for
+ * the id at that position.</p>
+ * <p>
+ * The view always reflects the current contents of its owner, and any attempt
+ * to modify it through the List interface throws
+ * UnsupportedOperationException.</p>
+ *
+ * @since 3.0
+ */
+class CardList extends AbstractList<Card> implements RandomAccess {
+
+    /**
+     * The owner of the ids behind a CardList.
+     */
+    interface Source {
+
+        byte[] ids();
+
+        int size();
+    }
+
+    private final Source source;
+
+    CardList(Source source) {
+        this.source = source;
+    }
+
+    @Override
+    public Card get(int index) {
+        if (index < 0 || index >= source.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + source.size());
+        }
+        return Card.of(source.ids()[index]);
+    }
+
+    @Override
+    public int size() {
+        return source.size();
+    }
+}
@@ -0,0 +1,61 @@
+package uno;
+
+import uno.UnoPlayer.Color;
+
+/**
+ * A GameListener that prints a turn-by-turn log of a game to the screen. This
+ * is the output of a match run with UnoSimulation.PRINT_VERBOSE turned on.
+ *
+ * @since 3.0
+ */
+public class ConsoleGameListener implements GameListener {
+
+    @Override
+    public void gameStarted(Game game, Card upCard) {
+        System.out.println("Initial upcard is " + upCard + ".");
+    }
+
+    @Override
+    public void turnStarted(Hand player) {
+        System.out.print(player.getPlayerName() + " (" + player + ")");
+    }
+
+    @Override
+    public void cardDrawn(Hand player, Card drawnCard) {
+        System.out.print(" has to draw (" + drawnCard + ").");
+    }
+
+    @Override
+    public void cardPlayed(Hand player, Card playedCard, Card previousUpCard) {
+        System.out.print(" plays " + playedCard + " on " + previousUpCard + ".");
+    }
+
+    @Override
+    public void colorCalled(Hand player, Color calledColor) {
+        System.out.print(" (and calls " + calledColor + ").");
+    }
+
+    @Override
+    public void unoCalled(Hand player) {
+        System.out.print(" UNO!");
+    }
+
+    @Override
+    public void turnEnded(Hand player) {
+        System.out.println();
+    }
+
+    @Override
+    public void deckRemixed(Game game) {
+        System.out.print("...deck exhausted, remixing...");
+    }
+
+    @Override
+    public void gameWon(Hand winner, int points) {
+        if (UnoSimulation.USE_SCORE) {
+            System.out.print("\n" + winner.getPlayerName() + " wins! (and collects " + points + " points.)");
+        } else {
+            System.out.println("\n" + winner.getPlayerName() + " wins!");
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package uno;
 
-import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * <p>
@@ -11,6 +12,10 @@ import java.util.ArrayList;
  * <p>
  * The values of static member variables can be changed to adjust the content of
  * the deck.</p>
+ * <p>
+ * Both piles are stored as arrays of card ids (see CardCodes); the *Id methods
+ * work on ids directly, and the Card methods translate to and from the
+ * canonical Card instances.</p>
  *
  * @since 1.0
  */
@@ -42,67 +47,170 @@ public class Deck {
      */
     public static final int NUMBER_OF_WILD_D4_CARDS = 4;
 
-    private ArrayList<Card> cards = new ArrayList();
-    private ArrayList<Card> discardedCards = new ArrayList();
+    /**
+     * The total number of cards in a full deck.
+     */
+    public static final int DECK_SIZE = 4 * (9 * NUMBER_OF_DUP_REGULAR_CARDS
+            + NUMBER_OF_DUP_ZERO_CARDS + 3 * NUMBER_OF_DUP_SPECIAL_CARDS)
+            + NUMBER_OF_WILD_CARDS + NUMBER_OF_WILD_D4_CARDS;
+
+    // The draw pile; cards[numCards - 1] is the top of the pile.
+    private final byte[] cards = new byte[DECK_SIZE];
+    private int numCards;
+    private final byte[] discardedCards = new byte[DECK_SIZE];
+    private int numDiscarded;
+    private final List<Card> discardedCardsView = new CardList(new CardList.Source() {
+        @Override
+        public byte[] ids() {
+            return discardedCards;
+        }
+
+        @Override
+        public int size() {
+            return numDiscarded;
+        }
+    });
+    private final CardCounts discardedCounts = new CardCounts();
+    private SplittableRandom rand;
 
     /**
-     * Constructor for a new, full, shuffled Deck.
+     * Constructor for a new, full, shuffled Deck with an arbitrary shuffle.
      */
     public Deck() {
-        //rand = new Random();
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Constructor for a new, full Deck shuffled by the random source passed.
+     * The Deck keeps using that source for every later remix, so two Decks
+     * given identically seeded sources deal identical cards.
+     *
+     * @param rand The random source that drives all shuffles of this Deck
+     */
+    public Deck(SplittableRandom rand) {
+        this.rand = rand;
+        fillDeck();
+        shuffle();
+    }
+
+    /**
+     * Return every card to the draw pile, wherever it is, and shuffle it with
+     * the random source passed, which the Deck keeps using from then on. The
+     * Deck ends up exactly as a new Deck(rand) would be, without allocating.
+     *
+     * @param rand The random source that drives all shuffles of this Deck
+     */
+    void reset(SplittableRandom rand) {
+        this.rand = rand;
+        numCards = 0;
+        numDiscarded = 0;
+        discardedCounts.clear();
         fillDeck();
         shuffle();
     }
 
+    /**
+     * Constructor for a copy of the Deck passed: the same draw pile, in the
+     * same order, and the same discard pile. The copy shuffles with the random
+     * source passed, so the original's source is left untouched.
+     *
+     * @param original The Deck to copy
+     * @param rand The random source that drives all shuffles of the copy
+     */
+    Deck(Deck original, SplittableRandom rand) {
+        copyFrom(original, rand);
+    }
+
+    /**
+     * Make this Deck a copy of the Deck passed, as the copy constructor does,
+     * without allocating.
+     *
+     * @param original The Deck to copy
+     * @param rand The random source that drives all shuffles of this Deck
+     */
+    void copyFrom(Deck original, SplittableRandom rand) {
+        this.rand = rand;
+        numCards = original.numCards;
+        System.arraycopy(original.cards, 0, cards, 0, numCards);
+        numDiscarded = original.numDiscarded;
+        System.arraycopy(original.discardedCards, 0, discardedCards, 0, numDiscarded);
+        discardedCounts.copyFrom(original.discardedCounts);
+    }
+
+    /**
+     * Copy the ids of the draw pile into the array passed, starting at the
+     * offset passed, and return how many there are.
+     */
+    int copyDrawPile(byte[] into, int offset) {
+        System.arraycopy(cards, 0, into, offset, numCards);
+        return numCards;
+    }
+
+    /**
+     * Replace the draw pile with the ids passed, the last of which becomes the
+     * top of the pile. The discard pile is left as it is.
+     */
+    void setDrawPile(byte[] ids, int offset, int count) {
+        System.arraycopy(ids, offset, cards, 0, count);
+        numCards = count;
+    }
+
     private void fillDeck() {
         for (int i = 1; i <= 9; i++) {
             for (int j = 0; j < NUMBER_OF_DUP_REGULAR_CARDS; j++) {
-                cards.add(new Card(UnoPlayer.Color.RED, i));
-                cards.add(new Card(UnoPlayer.Color.YELLOW, i));
-                cards.add(new Card(UnoPlayer.Color.BLUE, i));
-                cards.add(new Card(UnoPlayer.Color.GREEN, i));
+                add(Card.of(UnoPlayer.Color.RED, i));
+                add(Card.of(UnoPlayer.Color.YELLOW, i));
+                add(Card.of(UnoPlayer.Color.BLUE, i));
+                add(Card.of(UnoPlayer.Color.GREEN, i));
             }
         }
         // There are fewer "0" cards than other numbers.
         for (int j = 0; j < NUMBER_OF_DUP_ZERO_CARDS; j++) {
-            cards.add(new Card(UnoPlayer.Color.RED, 0));
-            cards.add(new Card(UnoPlayer.Color.YELLOW, 0));
-            cards.add(new Card(UnoPlayer.Color.BLUE, 0));
-            cards.add(new Card(UnoPlayer.Color.GREEN, 0));
+            add(Card.of(UnoPlayer.Color.RED, 0));
+            add(Card.of(UnoPlayer.Color.YELLOW, 0));
+            add(Card.of(UnoPlayer.Color.BLUE, 0));
+            add(Card.of(UnoPlayer.Color.GREEN, 0));
         }
         for (int j = 0; j < NUMBER_OF_DUP_SPECIAL_CARDS; j++) {
-            cards.add(new Card(UnoPlayer.Color.RED, UnoPlayer.Rank.SKIP));
-            cards.add(new Card(UnoPlayer.Color.YELLOW, UnoPlayer.Rank.SKIP));
-            cards.add(new Card(UnoPlayer.Color.GREEN, UnoPlayer.Rank.SKIP));
-            cards.add(new Card(UnoPlayer.Color.BLUE, UnoPlayer.Rank.SKIP));
-            cards.add(new Card(UnoPlayer.Color.RED, UnoPlayer.Rank.REVERSE));
-            cards.add(new Card(UnoPlayer.Color.YELLOW, UnoPlayer.Rank.REVERSE));
-            cards.add(new Card(UnoPlayer.Color.GREEN, UnoPlayer.Rank.REVERSE));
-            cards.add(new Card(UnoPlayer.Color.BLUE, UnoPlayer.Rank.REVERSE));
-            cards.add(new Card(UnoPlayer.Color.RED, UnoPlayer.Rank.DRAW_TWO));
-            cards.add(new Card(UnoPlayer.Color.YELLOW, UnoPlayer.Rank.DRAW_TWO));
-            cards.add(new Card(UnoPlayer.Color.GREEN, UnoPlayer.Rank.DRAW_TWO));
-            cards.add(new Card(UnoPlayer.Color.BLUE, UnoPlayer.Rank.DRAW_TWO));
+            add(Card.of(UnoPlayer.Color.RED, UnoPlayer.Rank.SKIP));
+            add(Card.of(UnoPlayer.Color.YELLOW, UnoPlayer.Rank.SKIP));
+            add(Card.of(UnoPlayer.Color.GREEN, UnoPlayer.Rank.SKIP));
+            add(Card.of(UnoPlayer.Color.BLUE, UnoPlayer.Rank.SKIP));
+            add(Card.of(UnoPlayer.Color.RED, UnoPlayer.Rank.REVERSE));
+            add(Card.of(UnoPlayer.Color.YELLOW, UnoPlayer.Rank.REVERSE));
+            add(Card.of(UnoPlayer.Color.GREEN, UnoPlayer.Rank.REVERSE));
+            add(Card.of(UnoPlayer.Color.BLUE, UnoPlayer.Rank.REVERSE));
+            add(Card.of(UnoPlayer.Color.RED, UnoPlayer.Rank.DRAW_TWO));
+            add(Card.of(UnoPlayer.Color.YELLOW, UnoPlayer.Rank.DRAW_TWO));
+            add(Card.of(UnoPlayer.Color.GREEN, UnoPlayer.Rank.DRAW_TWO));
+            add(Card.of(UnoPlayer.Color.BLUE, UnoPlayer.Rank.DRAW_TWO));
         }
         for (int i = 0; i < NUMBER_OF_WILD_CARDS; i++) {
-            cards.add(new Card(UnoPlayer.Color.NONE, UnoPlayer.Rank.WILD));
+            add(Card.of(UnoPlayer.Color.NONE, UnoPlayer.Rank.WILD));
         }
         for (int i = 0; i < NUMBER_OF_WILD_D4_CARDS; i++) {
-            cards.add(new Card(UnoPlayer.Color.NONE, UnoPlayer.Rank.WILD_D4));
+            add(Card.of(UnoPlayer.Color.NONE, UnoPlayer.Rank.WILD_D4));
         }
     }
 
+    private void add(Card c) {
+        cards[numCards++] = (byte) c.getId();
+    }
+
     /**
      * When performed on a Deck that is <i>at least partially filled,</i>,
      * shuffles its cards randomly. Note that this does not fill the Deck, nor
-     * does it combine any outstanding cards into the Deck.
+     * does it combine any outstanding cards into the Deck. The shuffle is an
+     * in-place Fisher-Yates shuffle, so it takes linear time and allocates
+     * nothing.
      */
     public void shuffle() {
-        ArrayList<Card> newCards = new ArrayList();
-        while (cards.size() > 0) {
-            newCards.add(cards.remove((int) (Math.random() * cards.size())));
+        for (int i = numCards - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            byte swap = cards[i];
+            cards[i] = cards[j];
+            cards[j] = swap;
         }
-        cards = newCards;
     }
 
     /**
@@ -111,7 +219,16 @@ public class Deck {
      * @return Whether the deck is empty
      */
     public boolean isEmpty() {
-        return cards.isEmpty();
+        return numCards == 0;
+    }
+
+    /**
+     * Returns the number of cards left in the draw pile.
+     *
+     * @return The number of cards that can still be drawn before a remix
+     */
+    public int size() {
+        return numCards;
     }
 
     /**
@@ -122,10 +239,21 @@ public class Deck {
      * @see isEmpty
      */
     public Card draw() throws EmptyDeckException {
+        return Card.of(drawId());
+    }
+
+    /**
+     * Returns the id of the top card of the Deck, and removes it.
+     *
+     * @return The id of the card drawn
+     * @throws EmptyDeckException When called on an empty deck.
+     * @see isEmpty
+     */
+    public int drawId() throws EmptyDeckException {
         if (isEmpty()) {
             throw new EmptyDeckException();
         }
-        return cards.remove(0);
+        return cards[--numCards];
     }
 
     /**
@@ -135,7 +263,18 @@ public class Deck {
      * @param c the card to add to the discard pile
      */
     public void discard(Card c) {
-        discardedCards.add(c);
+        discardId(c.getId());
+    }
+
+    /**
+     * Discard the card with the id passed so that it is out of play until a
+     * remix operation.
+     *
+     * @param id the id of the card to add to the discard pile
+     */
+    public void discardId(int id) {
+        discardedCards[numDiscarded++] = (byte) id;
+        discardedCounts.add(id);
     }
 
     /**
@@ -143,18 +282,27 @@ public class Deck {
      * deck, and shuffling.
      */
     public void remix() {
-        cards.addAll(discardedCards);
-        discardedCards.clear();
+        System.arraycopy(discardedCards, 0, cards, numCards, numDiscarded);
+        numCards += numDiscarded;
+        numDiscarded = 0;
+        discardedCounts.clear();
         shuffle();
     }
 
     /**
      * Returns the list of discarded Cards since the last remix.
      *
-     * @return ArrayList<Card> A list of all Cards that have been discarded (via
-     * discard()) since the last Deck remix.
+     * @return List<Card> A read-only view of all Cards that have been discarded
+     * (via discard()) since the last Deck remix.
+     */
+    List<Card> getDiscardedCards() {
+        return discardedCardsView;
+    }
+
+    /**
+     * Returns the running counts of the cards discarded since the last remix.
      */
-    ArrayList<Card> getDiscardedCards() {
-        return discardedCards;
+    CardCounts getDiscardedCounts() {
+        return discardedCounts;
     }
 }
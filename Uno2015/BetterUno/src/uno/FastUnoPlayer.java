@@ -0,0 +1,36 @@
+package uno;
+
+import uno.UnoPlayer.Color;
+
+/**
+ * <p>
+ * An optional fast path for Uno-playing strategies. A strategy that implements
+ * FastUnoPlayer is handed its hand as the engine's own array of card ids (see
+ * CardCodes) instead of a List of Cards, so it can make its decisions without
+ * touching a single object. The engine calls these methods in place of the
+ * UnoPlayer ones; the UnoPlayer methods are still used by tools (such as
+ * TestCaseProcessor) that work on Card lists.</p>
+ * <p>
+ * The hand array is owned by the engine. Only its first handSize entries are
+ * meaningful, and a strategy must never modify it.</p>
+ *
+ * @since 3.0
+ */
+public interface FastUnoPlayer extends UnoPlayer {
+
+    /**
+     * Same contract as UnoPlayer.play(), with the hand and the up card given as
+     * card ids.
+     *
+     * @return The index within hand of the card to play, or -1 to draw
+     */
+    public int play(byte[] hand, int handSize, int upCard, Color calledColor,
+            GameState state);
+
+    /**
+     * Same contract as UnoPlayer.callColor(), with the hand given as card ids.
+     *
+     * @return A Color value, <i>not</i> Color.NONE
+     */
+    public Color callColor(byte[] hand, int handSize);
+}
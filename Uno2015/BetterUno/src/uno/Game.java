@@ -1,6 +1,8 @@
 package uno;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 import uno.UnoPlayer.Color;
 
 /**
@@ -17,6 +19,15 @@ import uno.UnoPlayer.Color;
  * A GameState object can be obtained through the getGameState() method, which
  * allows UnoPlayers to selectively and legally examine certain aspects of the
  * game's state.</p>
+ * <p>
+ * A Game can be forked, for lookahead: fork() makes an independent playable
+ * copy of the game as it stands, optionally with the cards hidden from one
+ * player (the other hands and the draw pile) dealt out afresh, and copyFrom()
+ * brings an existing fork back into line with the game, so a search can run
+ * any number of playouts on one fork without allocating. All of the state
+ * copied is arrays of card ids and counts. A fork can be advanced one turn at
+ * a time with playTurn(), with a move chosen by the caller or by the
+ * strategy, or played out to the end with play().</p>
  *
  * @since 1.0
  */
@@ -30,6 +41,29 @@ public class Game {
     private int currPosition;
     private Color calledColor;
     private Color mostRecentColorCalled[];
+    private GameState state;
+    private GameListener listener;
+    private ScoringPolicy scoring = ScoringPolicy.STANDARD;
+    // What has happened in this game since it was dealt, for MatchMetrics
+    private int turnsPlayed;
+    private int cardsDrawn;
+    private int remixes;
+    /**
+     * What becomes of a decision that takes a player longer than its budget
+     * (see timeDecisions()).
+     */
+    public enum OverBudget {
+
+        // The engine plays the first legal card (or calls the suit the hand holds most of) instead
+        DEFAULT_MOVE,
+        // The player's card is not played, and they must draw instead
+        FORFEIT_MOVE
+    }
+
+    // Scratch space for dealing out hidden cards, allocated on first use
+    private byte[] hiddenCards;
+    // Tells turn() to let the strategy choose the move
+    private static final int STRATEGY_MOVE = -2;
 
     /**
      * Main constructor to instantiate a Game of Uno. Provided must be two
@@ -42,13 +76,223 @@ public class Game {
      * _UnoPlayer bit
      */
     public Game(ArrayList<String> playerNames, ArrayList<String> playerClasses) {
+        this(playerNames, playerClasses, new SplittableRandom());
+    }
+
+    /**
+     * Instantiate a Game of Uno whose every random decision (the shuffles of
+     * the deck, the starting direction and the starting player) is drawn from
+     * the random source passed. Games given identically seeded sources (and
+     * deterministic strategies) play out identically.
+     *
+     * @param playerNames A list of the names of the players
+     * @param playerClasses A list of the class names of the players, minus the
+     * _UnoPlayer bit
+     * @param rand The random source owned by this game
+     */
+    public Game(ArrayList<String> playerNames, ArrayList<String> playerClasses, SplittableRandom rand) {
         numPlayers = playerNames.size();
-        deck = new Deck();
+        deck = new Deck(rand);
         playerHands = new Hand[numPlayers];
         mostRecentColorCalled = new Color[numPlayers];
+        for (int i = 0; i < numPlayers; i++) {
+            playerHands[i] = new Hand(PlayerFactory.forClass(playerClasses.get(i)), playerNames.get(i));
+        }
+        state = new GameState(this);
+        deal(rand);
+    }
+
+    /**
+     * Make this Game a brand new game with the same players, as if it had just
+     * been constructed with a random source seeded with the seed passed: every
+     * card goes back into the deck, the deck is reshuffled, hands are dealt and
+     * a new up card, direction and starting player are drawn. The Game reuses
+     * its deck, hands and GameState, so a match can play all of its games on
+     * one Game object. Every hand gets a new player from its PlayerFactory, so
+     * no strategy state carries over from the previous game (unless the
+     * strategy is stateless and shared).
+     *
+     * @param seed The seed of the random source for the new game
+     */
+    public void reset(long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        deck.reset(rand);
+        for (Hand h : playerHands) {
+            h.reset();
+        }
+        turnsPlayed = 0;
+        cardsDrawn = 0;
+        remixes = 0;
+        deal(rand);
+    }
+
+    /**
+     * Instantiate a copy of the Game passed, for fork(). Each hand gets a new
+     * player from its factory; the listener is not copied.
+     */
+    private Game(Game original, SplittableRandom rand, int viewer) {
+        numPlayers = original.numPlayers;
+        deck = new Deck(original.deck, rand);
+        playerHands = new Hand[numPlayers];
+        for (int i = 0; i < numPlayers; i++) {
+            playerHands[i] = new Hand(original.playerHands[i]);
+        }
+        mostRecentColorCalled = new Color[numPlayers];
+        state = new GameState(this);
+        copyFrom(original, rand, viewer);
+    }
+
+    /**
+     * Return an independent, playable copy of this game as it stands: the same
+     * hands, piles, up card, called colors, direction and current player, and
+     * the same scoring policy. Each hand of the copy has a new player from its
+     * PlayerFactory, which setPlayerAt() can replace (with a rollout policy,
+     * say). The copy draws all its randomness from the source passed, so
+     * playing it has no effect on this game.
+     *
+     * @param rand The random source of the copy
+     * @return The copy
+     */
+    public Game fork(SplittableRandom rand) {
+        return new Game(this, rand, -1);
+    }
+
+    /**
+     * Return a copy of this game as the player at position viewer might
+     * imagine it: like fork(rand), except that the cards the viewer cannot see
+     * (those in the other players' hands and in the draw pile) are shuffled
+     * together and dealt out again, each hand keeping its size.
+     *
+     * @param rand The random source of the copy, which also deals the hidden
+     * cards
+     * @param viewer The position of the player whose knowledge the copy is
+     * consistent with
+     * @return The copy
+     */
+    public Game fork(SplittableRandom rand, int viewer) {
+        return new Game(this, rand, viewer);
+    }
+
+    /**
+     * Make this game, which must have as many players as the game passed, a
+     * copy of that game as it stands, as fork(rand) would, but keeping this
+     * game's players and without allocating.
+     *
+     * @param original The game to copy
+     * @param rand The random source this game draws from from now on
+     */
+    public void copyFrom(Game original, SplittableRandom rand) {
+        copyFrom(original, rand, -1);
+    }
+
+    /**
+     * Make this game, which must have as many players as the game passed, a
+     * copy of that game as the player at position viewer might imagine it, as
+     * fork(rand, viewer) would, but keeping this game's players and without
+     * allocating.
+     *
+     * @param original The game to copy
+     * @param rand The random source this game draws from from now on, which
+     * also deals the hidden cards
+     * @param viewer The position of the player whose knowledge the copy is
+     * consistent with, or -1 to copy every card where it is
+     */
+    public void copyFrom(Game original, SplittableRandom rand, int viewer) {
+        if (original.numPlayers != numPlayers) {
+            throw new IllegalArgumentException("Cannot copy a game of " + original.numPlayers
+                    + " players into a game of " + numPlayers);
+        }
+        deck.copyFrom(original.deck, rand);
+        for (int i = 0; i < numPlayers; i++) {
+            playerHands[i].copyFrom(original.playerHands[i]);
+        }
+        System.arraycopy(original.mostRecentColorCalled, 0, mostRecentColorCalled, 0, numPlayers);
+        upCard = original.upCard;
+        movingForwards = original.movingForwards;
+        currPosition = original.currPosition;
+        calledColor = original.calledColor;
+        scoring = original.scoring;
+        turnsPlayed = original.turnsPlayed;
+        cardsDrawn = original.cardsDrawn;
+        remixes = original.remixes;
+        if (viewer >= 0) {
+            dealHiddenCards(viewer, rand);
+        }
+        state.invalidate();
+    }
+
+    /**
+     * Shuffle together the cards in the draw pile and in every hand but the
+     * viewer's, then deal them back out, each hand getting as many as it had
+     * and the rest making up the draw pile.
+     */
+    private void dealHiddenCards(int viewer, SplittableRandom rand) {
+        if (hiddenCards == null) {
+            hiddenCards = new byte[Deck.DECK_SIZE];
+        }
+        int numHidden = 0;
+        for (int i = 0; i < numPlayers; i++) {
+            if (i != viewer) {
+                Hand h = playerHands[i];
+                for (int j = 0; j < h.size(); j++) {
+                    hiddenCards[numHidden++] = (byte) h.idAt(j);
+                }
+            }
+        }
+        numHidden += deck.copyDrawPile(hiddenCards, numHidden);
+        for (int i = numHidden - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            byte swap = hiddenCards[i];
+            hiddenCards[i] = hiddenCards[j];
+            hiddenCards[j] = swap;
+        }
+        int dealt = 0;
+        for (int i = 0; i < numPlayers; i++) {
+            if (i != viewer) {
+                Hand h = playerHands[i];
+                int size = h.size();
+                h.clear();
+                for (int j = 0; j < size; j++) {
+                    h.addId(hiddenCards[dealt++]);
+                }
+            }
+        }
+        deck.setDrawPile(hiddenCards, dealt, numHidden - dealt);
+    }
+
+    /**
+     * Time every decision (every call of play() or callColor()) of every
+     * player from now on, into a LatencyHistogram per hand, and hold each
+     * decision to the budget passed. A strategy cannot be interrupted, so a
+     * decision over budget is only dealt with once it returns, as the policy
+     * passed says. Decisions are not timed unless this is called, and forks do
+     * not inherit timing, so untimed games and playouts pay nothing for it.
+     *
+     * @param budgetNanos The longest a decision may take, in nanoseconds, or
+     * 0 for no limit
+     * @param policy What becomes of a decision over budget
+     */
+    public void timeDecisions(long budgetNanos, OverBudget policy) {
+        for (Hand h : playerHands) {
+            h.timeDecisions(budgetNanos, policy);
+        }
+    }
+
+    /**
+     * Make the player at the given position play by the strategy passed from
+     * now on (until the game is reset).
+     *
+     * @param pos The position of the player
+     * @param player The strategy to play by
+     */
+    public void setPlayerAt(int pos, UnoPlayer player) {
+        getPlayerAt(pos).setPlayer(player);
+    }
+
+    private void deal(SplittableRandom rand) {
+        Arrays.fill(mostRecentColorCalled, Color.NONE);
         try {
             for (int i = 0; i < numPlayers; i++) {
-                playerHands[i] = new Hand(playerClasses.get(i), playerNames.get(i));
                 for (int j = 0; j < UnoSimulation.INIT_HAND_SIZE; j++) {
                     playerHands[i].addCard(deck.draw());
                 }
@@ -62,9 +306,10 @@ public class Game {
             System.out.println("ERROR: Not enough cards in deck to draw initial hands");
             System.exit(1);
         }
-        movingForwards = Math.random() < .5;
-        currPosition = (int) (Math.random() * numPlayers);
+        movingForwards = rand.nextBoolean();
+        currPosition = rand.nextInt(numPlayers);
         calledColor = Color.NONE;
+        state.invalidate();
     }
 
     public void printState() {
@@ -96,6 +341,7 @@ public class Game {
      */
     public void advanceToNextPlayer() {
         currPosition = getNextPosition();
+        state.invalidate();
     }
 
     /**
@@ -104,14 +350,20 @@ public class Game {
      */
     public void reverseDirection() {
         movingForwards = !movingForwards;
+        state.invalidate();
     }
 
     public Card draw() {
+        state.invalidate();
         try {
             if (deck.isEmpty()) {
-                print("...deck exhausted, remixing...");
+                if (listener != null) {
+                    listener.deckRemixed(this);
+                }
                 deck.remix();
+                remixes++;
             }
+            cardsDrawn++;
             return deck.draw();
         } catch (EmptyDeckException e) {
             System.out.println("Error: Cannot draw card");
@@ -124,101 +376,174 @@ public class Game {
      * Play an entire Game of Uno from start to finish. Hands should have
      * already been dealt before this method is called, and a valid up card
      * turned up. When the method is completed, the Game's scoreboard object
-     * will have been updated with new scoring favoring the winner.
+     * will have been updated with new scoring favoring the winner. Called on a
+     * game already under way (a fork, say), it plays the rest of the game.
      *
      * @return Data on the winning player
      */
     public Victory play() {
-        //Print the initial card
-        println("Initial upcard is " + upCard + ".");
-        Hand currPlayer = playerHands[currPosition];
+        //Announce the initial card
+        if (listener != null) {
+            listener.gameStarted(this, upCard);
+        }
         //While the game isn't over
-        while (true) {
-            currPlayer = playerHands[currPosition];
-            //Prints the current player and their hand
-            print(currPlayer.getPlayerName() + " (" + currPlayer + ")");
-            //Gets the card to be played
-            Card playedCard = currPlayer.play(this);
-            //If they cannot play a card at first, draw
-            if (playedCard == null) {
-                //Get the drawn card
-                Card drawnCard = draw();
-                //Add it to the player's hand
-                currPlayer.addCard(drawnCard);
-                //Say so
-                print(" has to draw (" + drawnCard + ").");
-                //See if they can play now
-                playedCard = currPlayer.play(this);
-            }
-            //If they don't pass
-            if (playedCard != null) {
-                //Say what they play
-                print(" plays " + playedCard + " on " + upCard + ".");
-                //Add it to the discard
-                deck.discard(upCard);
-                //Set it as the upCard
-                upCard = playedCard;
-                //If they need to call
-                if (upCard.followedByCall()) {
-                    //Find the call
-                    calledColor = currPlayer.callColor(this);
-                    //Set the call
-                    mostRecentColorCalled[currPosition] = calledColor;
-                    //Print the call
-                    print(" (and calls " + calledColor + ").");
-                } else {
-                    //Set the call to nothing
-                    calledColor = Color.NONE;
-                }
-            }
-            //Check if game is over
-            if (currPlayer.isEmpty()) {
-                break;
+        while (!isOver()) {
+            turn(STRATEGY_MOVE, Color.NONE);
+        }
+        //Calculate the score
+        int roundPoints = scoring.score(currPosition, playerHands);
+        //Say stuff
+        if (listener != null) {
+            listener.gameWon(playerHands[currPosition], roundPoints);
+        }
+        return new Victory(currPosition, roundPoints);
+    }
+
+    /**
+     * Return true only if the game is over: the current player has gone out.
+     */
+    public boolean isOver() {
+        return playerHands[currPosition].isEmpty();
+    }
+
+    /**
+     * Play the current player's turn, letting their strategy choose the move.
+     *
+     * @return Whether the turn ended the game
+     */
+    public boolean playTurn() {
+        return turn(STRATEGY_MOVE, Color.NONE);
+    }
+
+    /**
+     * Play the current player's turn with a move chosen by the caller: the
+     * card at index cardIndex of their hand, or, if cardIndex is -1, a draw
+     * (after which their strategy decides whether to play the card drawn, as
+     * usual).
+     *
+     * @param cardIndex The index of the card to play, or -1 to draw
+     * @param calledColor The color to call if the card played is a wild
+     * (ignored otherwise)
+     * @return Whether the turn ended the game
+     * @throws IllegalArgumentException If the card cannot legally be played,
+     * or a wild is played without calling a color
+     */
+    public boolean playTurn(int cardIndex, Color calledColor) {
+        Hand currPlayer = playerHands[currPosition];
+        if (cardIndex < -1 || cardIndex >= currPlayer.size()) {
+            throw new IllegalArgumentException("No such card: " + cardIndex);
+        }
+        if (cardIndex >= 0 && CardCodes.followedByCall(currPlayer.idAt(cardIndex)) && calledColor == Color.NONE) {
+            throw new IllegalArgumentException("A color must be called for " + Card.of(currPlayer.idAt(cardIndex)));
+        }
+        return turn(cardIndex, calledColor);
+    }
+
+    /**
+     * Play the current player's turn: the move is the card at index cardIndex
+     * of their hand with the color called passed, a draw if cardIndex is -1,
+     * or whatever their strategy chooses if it is STRATEGY_MOVE.
+     */
+    private boolean turn(int cardIndex, Color call) {
+        Hand currPlayer = playerHands[currPosition];
+        turnsPlayed++;
+        //Announce the current player (and their hand)
+        if (listener != null) {
+            listener.turnStarted(currPlayer);
+        }
+        //Gets the card to be played
+        Card playedCard = cardIndex == STRATEGY_MOVE ? currPlayer.play(this)
+                : cardIndex == -1 ? null : currPlayer.playAt(cardIndex, this);
+        boolean chosenByCaller = playedCard != null && cardIndex != STRATEGY_MOVE;
+        //If they cannot play a card at first, draw
+        if (playedCard == null) {
+            //Get the drawn card
+            Card drawnCard = draw();
+            //Add it to the player's hand
+            currPlayer.addCard(drawnCard);
+            //Say so
+            if (listener != null) {
+                listener.cardDrawn(currPlayer, drawnCard);
             }
-            //Print UNO if relevant
-            if (currPlayer.size() == 1) {
-                print(" UNO!");
+            //See if they can play now
+            playedCard = currPlayer.play(this);
+        }
+        //If they don't pass
+        if (playedCard != null) {
+            //Their hand shrank
+            state.invalidate();
+            //Say what they play
+            if (listener != null) {
+                listener.cardPlayed(currPlayer, playedCard, upCard);
             }
-            println("");
-            //Affect the game with the card
-            if (playedCard != null) {
-                playedCard.performCardEffect(this);
+            //Add it to the discard
+            deck.discard(upCard);
+            //Set it as the upCard
+            upCard = playedCard;
+            //If they need to call
+            if (upCard.followedByCall()) {
+                //Find the call
+                calledColor = chosenByCaller ? call : currPlayer.callColor(this);
+                //Set the call
+                mostRecentColorCalled[currPosition] = calledColor;
+                state.invalidate();
+                //Announce the call
+                if (listener != null) {
+                    listener.colorCalled(currPlayer, calledColor);
+                }
             } else {
-                advanceToNextPlayer();
+                //Set the call to nothing
+                calledColor = Color.NONE;
             }
         }
-        //Calculate the score
-        int roundPoints = 0;
-        for (Hand p : playerHands) {
-            roundPoints += p.countCards();
+        //Check if game is over
+        if (currPlayer.isEmpty()) {
+            return true;
         }
-        //Say stuff
-        if (UnoSimulation.USE_SCORE) {
-            print("\n" + currPlayer.getPlayerName() + " wins! (and collects " + roundPoints + " points.)");
+        //Announce UNO if relevant
+        if (listener != null) {
+            if (currPlayer.size() == 1) {
+                listener.unoCalled(currPlayer);
+            }
+            listener.turnEnded(currPlayer);
+        }
+        //Affect the game with the card
+        if (playedCard != null) {
+            playedCard.performCardEffect(this);
         } else {
-            println("\n" + currPlayer.getPlayerName() + " wins!");
+            advanceToNextPlayer();
         }
-        return new Victory(currPosition, roundPoints);
+        return false;
     }
 
-    public void print(String s) {
-        if (UnoSimulation.PRINT_VERBOSE) {
-            System.out.print(s);
-        }
+    /**
+     * Set how the winner of this game is scored (ScoringPolicy.STANDARD unless
+     * set otherwise). The policy stays in force when the Game is reset.
+     *
+     * @param scoring The policy to score this game by
+     */
+    public void setScoringPolicy(ScoringPolicy scoring) {
+        this.scoring = scoring;
     }
 
-    public void println(String s) {
-        if (UnoSimulation.PRINT_VERBOSE) {
-            System.out.println(s);
-        }
+    /**
+     * Attach a listener that will be told about everything that happens in
+     * this game, or detach the current one by passing null. With no listener
+     * attached, playing the game formats no output at all.
+     *
+     * @param listener The listener to receive this game's events
+     */
+    public void setListener(GameListener listener) {
+        this.listener = listener;
     }
 
     /**
      * Return the GameState object, through which the state of the game can be
-     * accessed and safely manipulated.
+     * accessed and safely manipulated. The same object is returned for the
+     * whole game and always reflects the current player's point of view.
      */
     public GameState getGameState() {
-        return new GameState(this);
+        return state;
     }
 
     /**
@@ -228,6 +553,29 @@ public class Game {
         return upCard;
     }
 
+    /**
+     * Return the number of turns played since the game was dealt.
+     */
+    public int getTurnsPlayed() {
+        return turnsPlayed;
+    }
+
+    /**
+     * Return the number of cards drawn since the game was dealt (not counting
+     * the deal itself), whether for want of a card to play or as a penalty.
+     */
+    public int getCardsDrawn() {
+        return cardsDrawn;
+    }
+
+    /**
+     * Return the number of times the draw pile has run out and the discards
+     * been shuffled back into it since the game was dealt.
+     */
+    public int getRemixes() {
+        return remixes;
+    }
+
     public int getNumPlayers() {
         return numPlayers;
     }
@@ -0,0 +1,63 @@
+package uno;
+
+import uno.UnoPlayer.Color;
+
+/**
+ * <p>
+ * Receives the events of a Game as it is played: one call per thing that
+ * happens at the table. Events carry the objects involved rather than
+ * finished messages, so nothing is formatted unless a listener chooses to
+ * format it, and a Game with no listener attached (the default) formats
+ * nothing at all.</p>
+ * <p>
+ * ConsoleGameListener prints the events as the classic verbose game log.</p>
+ *
+ * @since 3.0
+ */
+public interface GameListener {
+
+    /**
+     * The game is about to start with the given up card turned up.
+     */
+    public void gameStarted(Game game, Card upCard);
+
+    /**
+     * It is now the given player's turn.
+     */
+    public void turnStarted(Hand player);
+
+    /**
+     * The player could not play, and had to draw the given card.
+     */
+    public void cardDrawn(Hand player, Card drawnCard);
+
+    /**
+     * The player played a card on the previous up card.
+     */
+    public void cardPlayed(Hand player, Card playedCard, Card previousUpCard);
+
+    /**
+     * The player, having just played a wild, called a color.
+     */
+    public void colorCalled(Hand player, Color calledColor);
+
+    /**
+     * The player is down to a single card.
+     */
+    public void unoCalled(Hand player);
+
+    /**
+     * The current player's turn is over (and the game goes on).
+     */
+    public void turnEnded(Hand player);
+
+    /**
+     * The draw pile ran out, and the discards were shuffled back into it.
+     */
+    public void deckRemixed(Game game);
+
+    /**
+     * The player went out and won the game, collecting the given points.
+     */
+    public void gameWon(Hand winner, int points);
+}
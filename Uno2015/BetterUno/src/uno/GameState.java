@@ -1,7 +1,10 @@
 package uno;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
 import uno.UnoPlayer.Color;
 
 /**
@@ -17,9 +20,12 @@ import uno.UnoPlayer.Color;
  */
 public class GameState {
 
-    private Game game;
-    private int[] numCardsInHandsOfUpcomingPlayers;
-    private Color[] mostRecentColorCalledByUpcomingPlayers;
+    private final Game game;
+    private final int[] numCardsInHandsOfUpcomingPlayers;
+    private final Color[] mostRecentColorCalledByUpcomingPlayers;
+    private final List<Card> playedCards;
+    private final CardCounts playedCounts;
+    private boolean stale;
 
     /**
      * Blank constructor used for the TestCaseProcessor class
@@ -28,31 +34,108 @@ public class GameState {
         game = null;
         numCardsInHandsOfUpcomingPlayers = new int[4];
         mostRecentColorCalledByUpcomingPlayers = new Color[4];
+        Arrays.fill(mostRecentColorCalledByUpcomingPlayers, Color.NONE);
+        playedCards = Collections.emptyList();
+        playedCounts = new CardCounts();
     }
 
     /**
      * Instantiate a new GameState object whose job it is to provide safe access
-     * to the Game object passed.
+     * to the Game object passed. A Game keeps a single GameState for its whole
+     * lifetime: the Game marks it stale whenever a hand size, the current
+     * player, the direction of play or a called color changes, and the
+     * GameState recomputes its contents (into the same arrays) the next time it
+     * is asked for them.
      */
     public GameState(Game game) {
-
         this.game = game;
         int numPlayers = game.getNumPlayers();
-
         numCardsInHandsOfUpcomingPlayers = new int[numPlayers];
-        mostRecentColorCalledByUpcomingPlayers = new UnoPlayer.Color[numPlayers];
-
-        if (game.isMovingForwards()) {
-            for (int i = 0; i < numPlayers; i++) {
-                numCardsInHandsOfUpcomingPlayers[i] = game.getPlayerAt(game.getCurrPosition() + i + 1).size();
-                mostRecentColorCalledByUpcomingPlayers[i] = game.getMostRecentColorCalled(game.getCurrPosition() + i + 1);
-            }
-        } else {
-            for (int i = 0; i < numPlayers; i++) {
-                numCardsInHandsOfUpcomingPlayers[i] = game.getPlayerAt(game.getCurrPosition() - i - 1).size();
-                mostRecentColorCalledByUpcomingPlayers[i] = game.getMostRecentColorCalled(game.getCurrPosition() - i - 1);
-            }
+        mostRecentColorCalledByUpcomingPlayers = new Color[numPlayers];
+        playedCards = null;
+        playedCounts = null;
+        stale = true;
+    }
+
+    /**
+     * Copy constructor used by snapshot().
+     */
+    private GameState(GameState original) {
+        game = null;
+        numCardsInHandsOfUpcomingPlayers = original.getNumCardsInHandsOfUpcomingPlayers().clone();
+        mostRecentColorCalledByUpcomingPlayers = original.getMostRecentColorCalledByUpcomingPlayers().clone();
+        playedCards = Collections.unmodifiableList(new ArrayList<>(original.getPlayedCards()));
+        playedCounts = new CardCounts(original.getPlayedCounts());
+    }
+
+    /**
+     * Return a determinization of the game for its current player to search:
+     * a fork (see Game.fork(rand, viewer)) in which the cards that player
+     * cannot see, in the other hands and in the draw pile, are dealt out at
+     * random. The game itself is never handed out. Returns null if this
+     * GameState is not attached to a game (a snapshot, or the one
+     * TestCaseProcessor uses).
+     *
+     * @param rand The random source the hidden cards are dealt from, which
+     * the fork goes on drawing from
+     */
+    public Game determinize(SplittableRandom rand) {
+        return game == null ? null : game.fork(rand, game.getCurrPosition());
+    }
+
+    /**
+     * Bring a determinization made by determinize(rand) back into line with
+     * the game as it stands, dealing the hidden cards out afresh, so a search
+     * can run any number of playouts on one fork without allocating. The fork
+     * keeps its own players.
+     *
+     * @param into A fork made by determinize(rand) on this GameState
+     * @param rand The random source the hidden cards are dealt from, which
+     * the fork goes on drawing from
+     * @throws IllegalStateException If this GameState is not attached to a
+     * game
+     * @throws IllegalArgumentException If into is the game itself
+     */
+    public void determinize(Game into, SplittableRandom rand) {
+        if (game == null) {
+            throw new IllegalStateException("No game to determinize");
         }
+        if (into == game) {
+            throw new IllegalArgumentException("Cannot determinize a game into itself");
+        }
+        into.copyFrom(game, rand, game.getCurrPosition());
+    }
+
+    /**
+     * Mark the contents of this GameState as out of date. Called by the Game
+     * whenever anything this GameState reports changes.
+     */
+    void invalidate() {
+        stale = true;
+    }
+
+    private void refresh() {
+        if (!stale) {
+            return;
+        }
+        stale = false;
+        int numPlayers = numCardsInHandsOfUpcomingPlayers.length;
+        int step = game.isMovingForwards() ? 1 : -1;
+        for (int i = 0; i < numPlayers; i++) {
+            int pos = game.getCurrPosition() + step * (i + 1);
+            numCardsInHandsOfUpcomingPlayers[i] = game.getPlayerAt(pos).size();
+            mostRecentColorCalledByUpcomingPlayers[i] = game.getMostRecentColorCalled(pos);
+        }
+    }
+
+    /**
+     * Return a copy of this GameState, detached from the game, that keeps the
+     * values it has now. The GameState handed to a player is only guaranteed to
+     * be accurate during that player's turn, so a strategy that wants to keep
+     * information around for later turns should keep a snapshot instead.
+     */
+    public GameState snapshot() {
+        return new GameState(this);
     }
 
     /**
@@ -60,32 +143,107 @@ public class GameState {
      * remaining. The array is ordered so that index 0 has the count for the
      * player who (barring action cards that might change it) will play next,
      * index 1 the player who (barring action cards) will play second, etc.
+     * The array is shared and must not be modified; see also
+     * getNumCardsInHandOfUpcomingPlayer().
      */
     public int[] getNumCardsInHandsOfUpcomingPlayers() {
+        if (game != null) {
+            refresh();
+        }
         return numCardsInHandsOfUpcomingPlayers;
     }
 
+    /**
+     * Return the number of cards remaining to the i'th upcoming player (see
+     * getNumCardsInHandsOfUpcomingPlayers()).
+     */
+    public int getNumCardsInHandOfUpcomingPlayer(int i) {
+        return getNumCardsInHandsOfUpcomingPlayers()[i];
+    }
+
+    /**
+     * Return the number of players in the game, which is also the length of the
+     * arrays returned by this object.
+     */
+    public int getNumPlayers() {
+        return numCardsInHandsOfUpcomingPlayers.length;
+    }
+
     /**
      * Return the color most recently "called" (after playing a wild) by each
      * opponent. If a given opponent has not played a wild card this game, the
      * value will be Color.NONE. The array is ordered so that index 0 has the
      * count for the player who (barring action cards that might change it) will
      * play next, index 1 the player who (barring action cards) will play
-     * second, etc.
+     * second, etc. The array is shared and must not be modified; see also
+     * getMostRecentColorCalledByUpcomingPlayer().
      */
     public Color[] getMostRecentColorCalledByUpcomingPlayers() {
+        if (game != null) {
+            refresh();
+        }
         return mostRecentColorCalledByUpcomingPlayers;
     }
 
+    /**
+     * Return the color most recently called by the i'th upcoming player (see
+     * getMostRecentColorCalledByUpcomingPlayers()).
+     */
+    public Color getMostRecentColorCalledByUpcomingPlayer(int i) {
+        return getMostRecentColorCalledByUpcomingPlayers()[i];
+    }
+
     /**
      * Return a list of <i>all</i> cards that have been played since the last
      * time the deck was remixed. This allows players to "card count" if they
-     * choose.
+     * choose. The list is a read-only view of the discard pile itself (nothing
+     * is copied) and follows it as the game goes on; for plain counts, the
+     * getNumPlayedCards() methods answer without walking the list.
      */
     public List<Card> getPlayedCards() {
         if (game == null) {
-            return new ArrayList();
+            return playedCards;
         }
         return game.getDeck().getDiscardedCards();
     }
+
+    private CardCounts getPlayedCounts() {
+        if (game == null) {
+            return playedCounts;
+        }
+        return game.getDeck().getDiscardedCounts();
+    }
+
+    /**
+     * Return the number of cards that have been played since the last time the
+     * deck was remixed.
+     */
+    public int getNumPlayedCards() {
+        return getPlayedCounts().total();
+    }
+
+    /**
+     * Return the number of cards of the given color (Color.NONE for wilds)
+     * that have been played since the last time the deck was remixed.
+     */
+    public int getNumPlayedCards(Color color) {
+        return getPlayedCounts().of(color);
+    }
+
+    /**
+     * Return the number of cards of the given rank that have been played since
+     * the last time the deck was remixed.
+     */
+    public int getNumPlayedCards(UnoPlayer.Rank rank) {
+        return getPlayedCounts().of(rank);
+    }
+
+    /**
+     * Return the number of cards of the same type (color, rank and number) as
+     * the card passed that have been played since the last time the deck was
+     * remixed.
+     */
+    public int getNumPlayedCards(Card card) {
+        return getPlayedCounts().ofType(card.getId());
+    }
 }
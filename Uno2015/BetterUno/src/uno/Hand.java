@@ -1,6 +1,6 @@
 package uno;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * <p>
@@ -9,14 +9,41 @@ import java.util.ArrayList;
  * play) when the player's turn comes up. To do this, it implements the strategy
  * pattern by which this choice can be delegated to an arbitrary implementer of
  * the UnoPlayer class.</p>
+ * <p>
+ * The cards are stored as an array of card ids (see CardCodes). Strategies
+ * that implement FastUnoPlayer are handed that array directly; all others see
+ * it through a HandView. Alongside the cards, the Hand keeps a count of each
+ * card type it holds, the mask of those types, and counts per color and per
+ * (color, rank) and the hand's forfeit value up to date as cards are added and
+ * removed.</p>
  *
  * @since 1.0
  */
 public class Hand {
 
-    private ArrayList<Card> cards;
+    private static final int NUM_COLORS = UnoPlayer.Color.values().length;
+    private static final int NUM_RANKS = UnoPlayer.Rank.values().length;
+
+    private final byte[] cards = new byte[Deck.DECK_SIZE];
+    private int size;
+    private final int[] typeCounts = new int[Card.NUM_TYPES];
+    private long typeMask;
+    private final int[] colorCounts = new int[NUM_COLORS];
+    private final int[] colorRankCounts = new int[NUM_COLORS * NUM_RANKS];
+    private int forfeitTotal;
+    private final HandView view = new HandView(this);
+    private PlayerFactory factory;
     private UnoPlayer player;
+    private FastUnoPlayer fastPlayer;
     private String playerName;
+    // Decision timing, off (null) unless the Game turns it on
+    private LatencyHistogram latency;
+    private long budgetNanos;
+    private Game.OverBudget overBudgetPolicy;
+    private int overBudgetCount;
+    // Errors in the strategy's moves, until MatchMetrics takes them
+    private int illegalMoves;
+    private int missedLegalMoves;
 
     /**
      * Instantiate a Hand object to be played by the UnoPlayer class, and the
@@ -25,29 +52,169 @@ public class Hand {
      * UnoPlayer interface.
      */
     public Hand(String unoPlayerClassName, String playerName) {
-        try {
-            player = (UnoPlayer) Class.forName(unoPlayerClassName).newInstance();
-        } catch (Exception e) {
-            System.out.println("Problem with " + unoPlayerClassName + ".");
-            e.printStackTrace();
-            System.exit(1);
-        }
+        this(PlayerFactory.forClass(unoPlayerClassName), playerName);
+    }
+
+    /**
+     * Instantiate a Hand played by a player from the factory passed, under the
+     * player name passed.
+     */
+    Hand(PlayerFactory factory, String playerName) {
+        this.factory = factory;
         this.playerName = playerName;
-        cards = new ArrayList<Card>();
+        setPlayer(factory.newPlayer());
+    }
+
+    /**
+     * Instantiate a copy of the Hand passed, holding the same cards, under the
+     * same name, with a player of its own from the same factory.
+     */
+    Hand(Hand original) {
+        this(original.factory, original.playerName);
+        copyFrom(original);
+    }
+
+    /**
+     * Instantiate a Hand with no player behind it, used to hold cards for
+     * HandView.of().
+     */
+    Hand() {
     }
 
     /**
      * Add (draw) a card to the hand.
      */
     void addCard(Card c) {
-        cards.add(c);
+        addId(c.getId());
+    }
+
+    /**
+     * Add (draw) the card with the given id to the hand.
+     */
+    void addId(int id) {
+        cards[size++] = (byte) id;
+        typeCounts[id]++;
+        typeMask |= CardCodes.bit(id);
+        int color = CardCodes.getColor(id).ordinal();
+        colorCounts[color]++;
+        colorRankCounts[color * NUM_RANKS + CardCodes.getRank(id).ordinal()]++;
+        forfeitTotal += CardCodes.forfeitCost(id);
+    }
+
+    /**
+     * Make the player of this hand the one passed.
+     */
+    void setPlayer(UnoPlayer player) {
+        this.player = player;
+        fastPlayer = player instanceof FastUnoPlayer ? (FastUnoPlayer) player : null;
+    }
+
+    /**
+     * Empty the hand and give it a player for a new game, so the Hand can be
+     * dealt into again by Game.reset(). The player comes from the Hand's
+     * factory: a fresh instance, unless the strategy is shared.
+     */
+    void reset() {
+        setPlayer(factory.newPlayer());
+        clear();
+    }
+
+    /**
+     * Remove every card from the hand.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            typeCounts[cards[i]] = 0;
+        }
+        size = 0;
+        typeMask = 0;
+        forfeitTotal = 0;
+        Arrays.fill(colorCounts, 0);
+        Arrays.fill(colorRankCounts, 0);
+    }
+
+    /**
+     * Make this hand hold exactly the cards of the Hand passed, in the same
+     * order. The player is left as it is.
+     */
+    void copyFrom(Hand original) {
+        size = original.size;
+        System.arraycopy(original.cards, 0, cards, 0, size);
+        System.arraycopy(original.typeCounts, 0, typeCounts, 0, typeCounts.length);
+        typeMask = original.typeMask;
+        System.arraycopy(original.colorCounts, 0, colorCounts, 0, colorCounts.length);
+        System.arraycopy(original.colorRankCounts, 0, colorRankCounts, 0, colorRankCounts.length);
+        forfeitTotal = original.forfeitTotal;
+    }
+
+    /**
+     * Remove the card at the given index (shifting later cards down, as a List
+     * would) and return its id.
+     */
+    private int removeAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int id = cards[index];
+        System.arraycopy(cards, index + 1, cards, index, size - index - 1);
+        size--;
+        if (--typeCounts[id] == 0) {
+            typeMask &= ~CardCodes.bit(id);
+        }
+        int color = CardCodes.getColor(id).ordinal();
+        colorCounts[color]--;
+        colorRankCounts[color * NUM_RANKS + CardCodes.getRank(id).ordinal()]--;
+        forfeitTotal -= CardCodes.forfeitCost(id);
+        return id;
+    }
+
+    /**
+     * Return the id of the card at the given index.
+     */
+    int idAt(int index) {
+        return cards[index];
+    }
+
+    /**
+     * Return the mask (see CardCodes) of the card types in this hand.
+     */
+    long getTypeMask() {
+        return typeMask;
+    }
+
+    /**
+     * Return the number of cards of the type with the given id in this hand.
+     */
+    int countOfType(int id) {
+        return typeCounts[id];
+    }
+
+    /**
+     * Return the number of cards of the given color in this hand.
+     */
+    int countOf(UnoPlayer.Color color) {
+        return colorCounts[color.ordinal()];
+    }
+
+    /**
+     * Return the number of cards of the given color and rank in this hand.
+     */
+    int countOf(UnoPlayer.Color color, UnoPlayer.Rank rank) {
+        return colorRankCounts[color.ordinal() * NUM_RANKS + rank.ordinal()];
+    }
+
+    /**
+     * Return the read-only view of this hand that is handed to its player.
+     */
+    HandView getView() {
+        return view;
     }
 
     /**
      * Return the number of cards in the hand.
      */
     public int size() {
-        return cards.size();
+        return size;
     }
 
     /**
@@ -60,23 +227,51 @@ public class Hand {
      * Hand as a side effect), or null if no such Card can be played.
      */
     Card play(Game game) {
+        Card upCard = game.getUpCard();
+        UnoPlayer.Color calledColor = game.getCalledColor();
         int playedCard;
-        playedCard = player.play(cards, game.getUpCard(), game.getCalledColor(), game.getGameState());
-        if (playedCard == -1) {
-            for (Card c : cards) {
-                if (c.canPlayOn(game.getUpCard(), game.getCalledColor())) {
-                    System.out.println("Error: Didn't play legal move when able to by " + playerName + " on " + game.getUpCard());
+        if (latency == null) {
+            playedCard = choose(upCard, calledColor, game);
+        } else {
+            long start = System.nanoTime();
+            playedCard = choose(upCard, calledColor, game);
+            if (overBudget(System.nanoTime() - start)) {
+                if (overBudgetPolicy == Game.OverBudget.FORFEIT_MOVE) {
                     return null;
                 }
+                playedCard = defaultPlay(upCard, calledColor);
+            }
+        }
+        if (playedCard == -1) {
+            if ((typeMask & CardCodes.playableMask(upCard.getId(), calledColor)) != 0) {
+                System.out.println("Error: Didn't play legal move when able to by " + playerName + " on " + upCard);
+                missedLegalMoves++;
             }
             return null;
         } else {
-            Card toPlay = cards.remove(playedCard);
-            if (!toPlay.canPlayOn(game.getUpCard(), game.getCalledColor())) {
-                System.out.println("Error: Illegal move by " + playerName + ": " + toPlay + " on " + game.getUpCard());
+            int toPlay = removeAt(playedCard);
+            if (!CardCodes.canPlayOn(toPlay, upCard.getId(), calledColor)) {
+                System.out.println("Error: Illegal move by " + playerName + ": " + Card.of(toPlay) + " on " + upCard);
+                illegalMoves++;
             }
-            return toPlay;
+            return Card.of(toPlay);
+        }
+    }
+
+    /**
+     * Play the card at the given index, chosen by the caller rather than by
+     * the strategy, and return it.
+     *
+     * @throws IllegalArgumentException If there is no card at that index, or
+     * it cannot legally be played
+     */
+    Card playAt(int index, Game game) {
+        Card upCard = game.getUpCard();
+        if (index < 0 || index >= size
+                || !CardCodes.canPlayOn(cards[index], upCard.getId(), game.getCalledColor())) {
+            throw new IllegalArgumentException("Cannot play card " + index + " of " + this + " on " + upCard);
         }
+        return Card.of(removeAt(index));
     }
 
     /**
@@ -88,7 +283,117 @@ public class Hand {
      * @return A Color value, <i>not</i> Color.NONE.
      */
     UnoPlayer.Color callColor(Game game) {
-        return player.callColor(cards);
+        if (latency == null) {
+            return chooseColor();
+        }
+        long start = System.nanoTime();
+        UnoPlayer.Color color = chooseColor();
+        if (overBudget(System.nanoTime() - start)) {
+            return defaultColor();
+        }
+        return color;
+    }
+
+    private int choose(Card upCard, UnoPlayer.Color calledColor, Game game) {
+        if (fastPlayer != null) {
+            return fastPlayer.play(cards, size, upCard.getId(), calledColor, game.getGameState());
+        }
+        return player.play(view, upCard, calledColor, game.getGameState());
+    }
+
+    private UnoPlayer.Color chooseColor() {
+        if (fastPlayer != null) {
+            return fastPlayer.callColor(cards, size);
+        }
+        return player.callColor(view);
+    }
+
+    /**
+     * Time every decision of this hand's player from now on, into a histogram
+     * of its own (see getLatency()), and hold each decision to the budget
+     * passed: a decision that takes longer is replaced as the policy passed
+     * says. Every decision is timed with System.nanoTime(), so the histogram
+     * holds every duration and every decision is held to the same limit.
+     *
+     * @param budgetNanos The longest a decision may take, in nanoseconds, or
+     * 0 for no limit
+     * @param policy What becomes of a decision over budget
+     */
+    void timeDecisions(long budgetNanos, Game.OverBudget policy) {
+        if (latency == null) {
+            latency = new LatencyHistogram();
+        }
+        this.budgetNanos = budgetNanos;
+        overBudgetPolicy = policy;
+    }
+
+    // Count a decision's duration, and say whether it went over budget.
+    private boolean overBudget(long nanos) {
+        latency.record(nanos);
+        if (budgetNanos > 0 && nanos > budgetNanos) {
+            overBudgetCount++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Return the histogram of the time this hand's player has taken over its
+     * decisions, or null if they are not being timed.
+     */
+    LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Return how many of this hand's player's decisions have gone over
+     * budget, and start counting again from 0.
+     */
+    int takeOverBudgetCount() {
+        int count = overBudgetCount;
+        overBudgetCount = 0;
+        return count;
+    }
+
+    /**
+     * Return how many illegal cards this hand's player has played, and start
+     * counting again from 0.
+     */
+    int takeIllegalMoves() {
+        int count = illegalMoves;
+        illegalMoves = 0;
+        return count;
+    }
+
+    /**
+     * Return how many times this hand's player has drawn when they held a
+     * card they could play, and start counting again from 0.
+     */
+    int takeMissedLegalMoves() {
+        int count = missedLegalMoves;
+        missedLegalMoves = 0;
+        return count;
+    }
+
+    // The move played for a player over budget: the first legal card, if any.
+    private int defaultPlay(Card upCard, UnoPlayer.Color calledColor) {
+        for (int i = 0; i < size; i++) {
+            if (CardCodes.canPlayOn(cards[i], upCard.getId(), calledColor)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // The color called for a player over budget: the suit the hand holds most of.
+    private UnoPlayer.Color defaultColor() {
+        UnoPlayer.Color best = UnoPlayer.Color.RED;
+        for (UnoPlayer.Color c : UnoPlayer.Color.values()) {
+            if (c != UnoPlayer.Color.NONE && colorCounts[c.ordinal()] > colorCounts[best.ordinal()]) {
+                best = c;
+            }
+        }
+        return best;
     }
 
     /**
@@ -96,7 +401,7 @@ public class Hand {
      * winning condition.
      */
     public boolean isEmpty() {
-        return cards.isEmpty();
+        return size == 0;
     }
 
     /**
@@ -105,14 +410,14 @@ public class Hand {
      */
     @Override
     public String toString() {
-        String retval = "";
-        for (int i = 0; i < cards.size(); i++) {
-            retval += cards.get(i);
-            if (i < cards.size() - 1) {
-                retval += ",";
+        StringBuilder retval = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            retval.append(Card.of(cards[i]));
+            if (i < size - 1) {
+                retval.append(',');
             }
         }
-        return retval;
+        return retval.toString();
     }
 
     /**
@@ -120,12 +425,7 @@ public class Hand {
      * the sum of all the forfeit values of cards still possessed.)
      */
     public int countCards() {
-        int total = 0;
-        for (int i = 0; i < cards.size(); i++) {
-            total += cards.get(i).forfeitCost();
-        }
-        return 1;
-        //return total;
+        return forfeitTotal;
     }
 
     /**
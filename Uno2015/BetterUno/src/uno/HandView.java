@@ -0,0 +1,152 @@
+package uno;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import uno.UnoPlayer.Color;
+import uno.UnoPlayer.Rank;
+
+/**
+ * <p>
+ * A read-only view of a Hand, which is what the engine passes to
+ * UnoPlayer.play() and UnoPlayer.callColor() as the hand parameter. As a List
+ * it behaves exactly like a list of the Cards in the hand, in order. On top of
+ * that it answers questions from the summary data the Hand keeps up to date
+ * as cards are drawn and played, so a strategy does not have to rescan the
+ * hand to answer them. Counts by type, color and rank are O(1), and so is
+ * finding the best card of a color: within a color, type ids ascend through
+ * the numbers 0-9 and then Reverse, Skip and Draw Two, so the best card is the
+ * highest type id held.</p>
+ * <p>
+ * Strategies that may also be handed an ordinary List (TestCaseProcessor does
+ * this) can call HandView.of() to get a view in either case.</p>
+ *
+ * @since 3.0
+ */
+public final class HandView extends AbstractList<Card> implements RandomAccess {
+
+    private final Hand hand;
+
+    HandView(Hand hand) {
+        this.hand = hand;
+    }
+
+    /**
+     * Return the list passed if it already is a HandView, or else a HandView of
+     * a new hand holding the same cards (in the same order).
+     *
+     * @param cards The cards of a hand
+     * @return A HandView of those cards
+     */
+    public static HandView of(List<Card> cards) {
+        if (cards instanceof HandView) {
+            return (HandView) cards;
+        }
+        Hand copy = new Hand();
+        for (Card c : cards) {
+            copy.addCard(c);
+        }
+        return copy.getView();
+    }
+
+    @Override
+    public Card get(int index) {
+        if (index < 0 || index >= hand.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + hand.size());
+        }
+        return Card.of(hand.idAt(index));
+    }
+
+    @Override
+    public int size() {
+        return hand.size();
+    }
+
+    /**
+     * Return the mask (see CardCodes) of the card types held in this hand.
+     */
+    public long getTypeMask() {
+        return hand.getTypeMask();
+    }
+
+    /**
+     * Return the mask of the card types in this hand that can legally be
+     * played on the given up card.
+     */
+    public long getPlayableMask(Card upCard, Color calledColor) {
+        return hand.getTypeMask() & CardCodes.playableMask(upCard.getId(), calledColor);
+    }
+
+    /**
+     * Return true only if at least one card in this hand can legally be played
+     * on the given up card.
+     */
+    public boolean hasPlayableCard(Card upCard, Color calledColor) {
+        return getPlayableMask(upCard, calledColor) != 0;
+    }
+
+    /**
+     * Return the number of cards of the type with the given id in this hand.
+     */
+    public int countOfType(int id) {
+        return hand.countOfType(id);
+    }
+
+    /**
+     * Return the number of cards of the given color in this hand (Color.NONE
+     * counts the wild cards).
+     */
+    public int countOf(Color color) {
+        return hand.countOf(color);
+    }
+
+    /**
+     * Return the number of cards of the given color and rank in this hand.
+     */
+    public int countOf(Color color, Rank rank) {
+        return hand.countOf(color, rank);
+    }
+
+    /**
+     * Return the number of special cards (anything but a number card) of the
+     * given color in this hand.
+     */
+    public int countSpecials(Color color) {
+        return hand.countOf(color) - hand.countOf(color, Rank.NUMBER);
+    }
+
+    /**
+     * Return the id of the best card of the given color in this hand (a Draw
+     * Two over a Skip over a Reverse over the highest number), or -1 if the
+     * hand has no card of that color.
+     */
+    public int bestTypeOf(Color color) {
+        long held = hand.getTypeMask() & CardCodes.colorMask(color);
+        return held == 0 ? -1 : 63 - Long.numberOfLeadingZeros(held);
+    }
+
+    /**
+     * Return the index within the hand of the first copy of the best card of
+     * the given color (see bestTypeOf()), or -1 if there is none.
+     */
+    public int bestIndexOf(Color color) {
+        int best = bestTypeOf(color);
+        return best == -1 ? -1 : indexOfType(best);
+    }
+
+    /**
+     * Return the index within the hand of the first card of the type with the
+     * given id, or -1 if there is none.
+     */
+    public int indexOfType(int id) {
+        if (hand.countOfType(id) == 0) {
+            return -1;
+        }
+        for (int i = 0; i < hand.size(); i++) {
+            if (hand.idAt(i) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,465 @@
+package uno;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * A strategy that searches for its moves with information-set Monte Carlo
+ * tree search (single-observer ISMCTS). Each playout starts from a
+ * determinization of the game (see GameState.determinize()): a fork in which
+ * the cards this player cannot see, in the other hands and in the draw pile, are dealt
+ * out at random. The playout walks down a tree of moves, choosing among the
+ * moves legal in its determinization by UCB1 (each child's availability
+ * counting how often it could have been chosen), adds one new move to the
+ * tree, plays the rest of the game out with every seat playing a random legal
+ * card, and credits the winner's moves along the way. The move played is the
+ * one tried most often at the root.</p>
+ * <p>
+ * A decision runs PLAYOUTS playouts or searches for TIME_BUDGET_MILLIS,
+ * whichever runs out first; at least one of the two must be set. With
+ * SEARCH_THREADS above 1, that many threads each grow a tree of their own and
+ * the root visits are added up (root parallelization). Without a time budget,
+ * a decision depends only on what the player can see, so a seeded match
+ * replays exactly. Every search adds to counters of decisions, playouts and
+ * time spent searching, which report() sums up for the current match.</p>
+ * <p>
+ * Given a GameState that is not attached to a game (a snapshot, or the one
+ * TestCaseProcessor uses), the player cannot search, and plays its first
+ * legal card.</p>
+ *
+ * @since 3.0
+ */
+public class ISMCTS_UnoPlayer implements FastUnoPlayer {
+
+    //How many playouts each decision may run (0 for no limit, if TIME_BUDGET_MILLIS is set)
+    public static int PLAYOUTS = 1000;
+    //How long each decision may search, in milliseconds (0 for no limit, if PLAYOUTS is set)
+    public static long TIME_BUDGET_MILLIS = 0;
+    //How many threads search each decision (keep at 1 when a match already plays games on every core)
+    public static int SEARCH_THREADS = 1;
+    //The weight of exploration in the UCB1 selection rule
+    public static double EXPLORATION = 0.7;
+
+    private static final Color[] SUIT_COLORS = {Color.RED, Color.YELLOW, Color.GREEN, Color.BLUE};
+    private static final Color[] COLORS = Color.values();
+    private static final int NUM_COLORS = COLORS.length;
+    // The move code of a draw; a play is card id * NUM_COLORS + called color
+    private static final int DRAW = -1;
+    // What search() returns when there is no game to search
+    private static final int NO_SEARCH = -2;
+    private static final int NUM_MOVE_CODES = Card.NUM_TYPES * NUM_COLORS;
+    private static final int MAX_MOVES = NUM_MOVE_CODES;
+    private static final ExecutorService SEARCH_POOL = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "ISMCTS search");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+    private static final LongAdder DECISIONS = new LongAdder();
+    private static final LongAdder TOTAL_PLAYOUTS = new LongAdder();
+    private static final LongAdder SEARCH_NANOS = new LongAdder();
+
+    private Searcher[] searchers;
+    private Color chosenColor = Color.RED;
+
+    @Override
+    public int play(byte[] hand, int handSize, int upCard, Color calledColor, GameState state) {
+        long playable = 0;
+        for (int i = 0; i < handSize; i++) {
+            playable |= CardCodes.bit(hand[i]);
+        }
+        playable &= CardCodes.playableMask(upCard, calledColor);
+        if (playable == 0) {
+            return -1;
+        }
+        int move;
+        if (Long.bitCount(playable) == 1 && !CardCodes.followedByCall(Long.numberOfTrailingZeros(playable))) {
+            move = Long.numberOfTrailingZeros(playable) * NUM_COLORS + Color.NONE.ordinal();
+        } else {
+            move = search(state, seed(hand, handSize, upCard, calledColor, state));
+        }
+        if (move == NO_SEARCH) {
+            int id = Long.numberOfTrailingZeros(playable);
+            move = id * NUM_COLORS + (CardCodes.followedByCall(id) ? mostCommonSuit(hand, handSize) : Color.NONE).ordinal();
+        }
+        int id = move / NUM_COLORS;
+        if (CardCodes.followedByCall(id)) {
+            chosenColor = COLORS[move % NUM_COLORS];
+        }
+        for (int i = 0; i < handSize; i++) {
+            if (hand[i] == id) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Searched move is not in the hand");
+    }
+
+    @Override
+    public Color callColor(byte[] hand, int handSize) {
+        return chosenColor;
+    }
+
+    @Override
+    public int play(List<Card> hand, Card upCard, Color calledColor, GameState state) {
+        byte[] ids = toIds(hand);
+        return play(ids, ids.length, upCard.getId(), calledColor, state);
+    }
+
+    @Override
+    public Color callColor(List<Card> hand) {
+        return chosenColor;
+    }
+
+    /**
+     * Search the game, from the point of view of its current player, and
+     * return the code of the move tried most often at the root, or NO_SEARCH
+     * if the GameState passed is not attached to a game.
+     */
+    private int search(GameState state, long seed) {
+        if (PLAYOUTS <= 0 && TIME_BUDGET_MILLIS <= 0) {
+            throw new IllegalStateException("ISMCTS_UnoPlayer needs PLAYOUTS or TIME_BUDGET_MILLIS to limit its search");
+        }
+        long start = System.nanoTime();
+        int numThreads = Math.max(1, SEARCH_THREADS);
+        if (searchers == null || searchers.length != numThreads) {
+            searchers = new Searcher[numThreads];
+            for (int t = 0; t < numThreads; t++) {
+                searchers[t] = new Searcher();
+            }
+        }
+        long deadline = TIME_BUDGET_MILLIS > 0 ? start + TIME_BUDGET_MILLIS * 1000000 : 0;
+        int playoutsEach = PLAYOUTS > 0 ? (PLAYOUTS + numThreads - 1) / numThreads : 0;
+        for (int t = 0; t < numThreads; t++) {
+            if (!searchers[t].prepare(state, UnoSimulation.seedForGame(seed, t), playoutsEach, deadline)) {
+                return NO_SEARCH;
+            }
+        }
+        long[] rootVisits = new long[NUM_MOVE_CODES + 1];
+        try {
+            List<Future<Node>> others = new ArrayList<>();
+            for (int t = 1; t < numThreads; t++) {
+                others.add(SEARCH_POOL.submit(searchers[t]));
+            }
+            addRootVisits(searchers[0].call(), rootVisits);
+            for (Future<Node> f : others) {
+                addRootVisits(f.get(), rootVisits);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Search failed", e);
+        }
+        int best = DRAW;
+        for (int code = 0; code < NUM_MOVE_CODES; code++) {
+            if (rootVisits[code] > (best == DRAW ? 0 : rootVisits[best])) {
+                best = code;
+            }
+        }
+        long playouts = 0;
+        for (Searcher s : searchers) {
+            playouts += s.playoutsRun;
+        }
+        DECISIONS.increment();
+        TOTAL_PLAYOUTS.add(playouts);
+        SEARCH_NANOS.add(System.nanoTime() - start);
+        return best;
+    }
+
+    private static void addRootVisits(Node root, long[] rootVisits) {
+        for (Node child : root.children) {
+            if (child.move != DRAW) {
+                rootVisits[child.move] += child.visits;
+            }
+        }
+    }
+
+    /**
+     * Return the seed of a decision's search, derived from everything the
+     * player can see, so the same position is always searched the same way.
+     */
+    private static long seed(byte[] hand, int handSize, int upCard, Color calledColor, GameState state) {
+        long seed = upCard * 31L + calledColor.ordinal();
+        for (int i = 0; i < handSize; i++) {
+            seed = seed * 131 + hand[i];
+        }
+        for (int n : state.getNumCardsInHandsOfUpcomingPlayers()) {
+            seed = seed * 137 + n;
+        }
+        return UnoSimulation.seedForGame(seed, state.getNumPlayedCards());
+    }
+
+    private static Color mostCommonSuit(byte[] hand, int handSize) {
+        int[] counts = new int[NUM_COLORS];
+        for (int i = 0; i < handSize; i++) {
+            counts[CardCodes.getColor(hand[i]).ordinal()]++;
+        }
+        Color best = SUIT_COLORS[0];
+        for (Color c : SUIT_COLORS) {
+            if (counts[c.ordinal()] > counts[best.ordinal()]) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private static byte[] toIds(List<Card> hand) {
+        byte[] ids = new byte[hand.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (byte) hand.get(i).getId();
+        }
+        return ids;
+    }
+
+    /**
+     * Forget the searches counted so far, so that report() covers only those
+     * that follow (UnoSimulation calls this as each match starts).
+     */
+    public static void resetReport() {
+        DECISIONS.reset();
+        TOTAL_PLAYOUTS.reset();
+        SEARCH_NANOS.reset();
+    }
+
+    /**
+     * Return a summary of all the searches run since the last resetReport(),
+     * or null if there have been none.
+     */
+    public static String report() {
+        long decisions = DECISIONS.sum();
+        if (decisions == 0) {
+            return null;
+        }
+        long playouts = TOTAL_PLAYOUTS.sum();
+        double seconds = SEARCH_NANOS.sum() / 1e9;
+        return String.format("(ISMCTS: %d decisions searched, %.0f playouts each, %.0f playouts/s, %.2f ms per decision)",
+                decisions, (double) playouts / decisions, playouts / seconds, seconds * 1000 / decisions);
+    }
+
+    /**
+     * A node of a search tree: the move that led to it, and who made it.
+     */
+    private static final class Node {
+
+        final Node parent;
+        final int move;
+        final int seat;
+        final ArrayList<Node> children = new ArrayList<>(4);
+        int visits;
+        int availability;
+        int wins;
+
+        Node(Node parent, int move, int seat) {
+            this.parent = parent;
+            this.move = move;
+            this.seat = seat;
+        }
+
+        Node childFor(int move) {
+            for (Node child : children) {
+                if (child.move == move) {
+                    return child;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One thread's share of a decision: a tree, and the fork and random
+     * source its playouts run on. A Searcher is reused for every decision of
+     * its player.
+     */
+    private static final class Searcher implements Callable<Node> {
+
+        private final int[] moves = new int[MAX_MOVES];
+        private final Node[] available = new Node[MAX_MOVES];
+        private GameState state;
+        private Game sim;
+        private RolloutPlayer rollout;
+        private SplittableRandom rand;
+        private int maxPlayouts;
+        private long deadline;
+        int playoutsRun;
+
+        /**
+         * Get ready to search the game behind the GameState passed, and
+         * return false if it is not attached to one.
+         */
+        boolean prepare(GameState state, long seed, int maxPlayouts, long deadline) {
+            rand = new SplittableRandom(seed);
+            if (sim == null || this.state != state) {
+                sim = state.determinize(rand.split());
+                if (sim == null) {
+                    return false;
+                }
+                this.state = state;
+                rollout = new RolloutPlayer(rand.split());
+                for (int i = 0; i < sim.getNumPlayers(); i++) {
+                    sim.setPlayerAt(i, rollout);
+                }
+            }
+            rollout.rand = rand.split();
+            this.maxPlayouts = maxPlayouts;
+            this.deadline = deadline;
+            return true;
+        }
+
+        @Override
+        public Node call() {
+            Node root = new Node(null, DRAW, -1);
+            playoutsRun = 0;
+            // Always run one playout, so there is a move to choose
+            while (playoutsRun == 0 || (maxPlayouts == 0 || playoutsRun < maxPlayouts)
+                    && (deadline == 0 || System.nanoTime() < deadline)) {
+                state.determinize(sim, rand);
+                Node node = root;
+                // Select and expand
+                while (!sim.isOver()) {
+                    int numMoves = legalMoves(sim, moves);
+                    int numAvailable = 0;
+                    int numUntried = 0;
+                    for (int i = 0; i < numMoves; i++) {
+                        Node child = node.childFor(moves[i]);
+                        if (child == null) {
+                            moves[numUntried++] = moves[i];
+                        } else {
+                            child.availability++;
+                            available[numAvailable++] = child;
+                        }
+                    }
+                    int seat = sim.getCurrPosition();
+                    if (numUntried > 0) {
+                        int move = moves[rand.nextInt(numUntried)];
+                        Node child = new Node(node, move, seat);
+                        child.availability = 1;
+                        node.children.add(child);
+                        node = child;
+                        apply(sim, move);
+                        break;
+                    }
+                    node = select(available, numAvailable);
+                    apply(sim, node.move);
+                }
+                // Play out
+                int winner = sim.isOver() ? sim.getCurrPosition() : sim.play().winningPlayer;
+                // Back up
+                for (; node != null; node = node.parent) {
+                    node.visits++;
+                    if (node.seat == winner) {
+                        node.wins++;
+                    }
+                }
+                playoutsRun++;
+            }
+            return root;
+        }
+
+        private static Node select(Node[] children, int numChildren) {
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < numChildren; i++) {
+                Node child = children[i];
+                double value = (double) child.wins / child.visits
+                        + EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Fill the array passed with the codes of the current player's legal
+         * moves (a play of each card type that can be played, with each color
+         * for a wild, or else a draw) and return how many there are.
+         */
+        private static int legalMoves(Game sim, int[] into) {
+            Hand hand = sim.getPlayerAt(sim.getCurrPosition());
+            long playable = hand.getTypeMask() & CardCodes.playableMask(sim.getUpCard().getId(), sim.getCalledColor());
+            if (playable == 0) {
+                into[0] = DRAW;
+                return 1;
+            }
+            int numMoves = 0;
+            for (; playable != 0; playable &= playable - 1) {
+                int id = Long.numberOfTrailingZeros(playable);
+                if (CardCodes.followedByCall(id)) {
+                    for (Color c : SUIT_COLORS) {
+                        into[numMoves++] = id * NUM_COLORS + c.ordinal();
+                    }
+                } else {
+                    into[numMoves++] = id * NUM_COLORS + Color.NONE.ordinal();
+                }
+            }
+            return numMoves;
+        }
+
+        private static void apply(Game sim, int move) {
+            if (move == DRAW) {
+                sim.playTurn(-1, Color.NONE);
+                return;
+            }
+            Hand hand = sim.getPlayerAt(sim.getCurrPosition());
+            int id = move / NUM_COLORS;
+            for (int i = 0; i < hand.size(); i++) {
+                if (hand.idAt(i) == id) {
+                    sim.playTurn(i, COLORS[move % NUM_COLORS]);
+                    return;
+                }
+            }
+            throw new IllegalStateException("Move is not in the hand");
+        }
+    }
+
+    /**
+     * The default policy of the playouts: play a random legal card, calling
+     * the suit the hand holds most of.
+     */
+    private static final class RolloutPlayer implements FastUnoPlayer {
+
+        SplittableRandom rand;
+
+        RolloutPlayer(SplittableRandom rand) {
+            this.rand = rand;
+        }
+
+        @Override
+        public int play(byte[] hand, int handSize, int upCard, Color calledColor, GameState state) {
+            long playable = CardCodes.playableMask(upCard, calledColor);
+            int chosen = -1;
+            int numLegal = 0;
+            for (int i = 0; i < handSize; i++) {
+                if ((playable & CardCodes.bit(hand[i])) != 0 && rand.nextInt(++numLegal) == 0) {
+                    chosen = i;
+                }
+            }
+            return chosen;
+        }
+
+        @Override
+        public Color callColor(byte[] hand, int handSize) {
+            return mostCommonSuit(hand, handSize);
+        }
+
+        @Override
+        public int play(List<Card> hand, Card upCard, Color calledColor, GameState state) {
+            byte[] ids = toIds(hand);
+            return play(ids, ids.length, upCard.getId(), calledColor, state);
+        }
+
+        @Override
+        public Color callColor(List<Card> hand) {
+            byte[] ids = toIds(hand);
+            return callColor(ids, ids.length);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package uno;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A histogram of durations in nanoseconds, for the time players take over
+ * their decisions. Values are counted in log-linear buckets: each power of two
+ * is split into SUB_BUCKETS buckets, so any duration is placed to within
+ * 1/SUB_BUCKETS of its value (about 6%), and recording one is a few shifts and
+ * an array increment, with no allocation. The largest value is kept exactly.</p>
+ * <p>
+ * A LatencyHistogram is not thread-safe; like a Scoreboard, each worker
+ * records into its own and they are combined with merge().</p>
+ *
+ * @since 3.0
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[(64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+    private long totalCount;
+    private long max;
+
+    /**
+     * Count one duration.
+     *
+     * @param nanos The duration, in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts[bucketOf(nanos)]++;
+        totalCount++;
+        if (nanos > max) {
+            max = nanos;
+        }
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // The largest value that falls in the bucket passed.
+    private static long highestIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long low = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return low + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Add all of the durations counted by another histogram into this one.
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Forget every duration counted.
+     */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        max = 0;
+    }
+
+    /**
+     * Return the number of durations counted.
+     */
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * Return the longest duration counted, in nanoseconds.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Return the duration, in nanoseconds, that the given fraction of the
+     * durations counted are no longer than (to within the bucket width), or 0
+     * if none have been counted.
+     *
+     * @param fraction The fraction, from 0 to 1 (0.99 for the 99th percentile)
+     */
+    public long getPercentile(double fraction) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Return a duration in nanoseconds as a short string in the most fitting
+     * unit.
+     */
+    public static String format(long nanos) {
+        if (nanos < 10000) {
+            return nanos + " ns";
+        } else if (nanos < 10000000) {
+            return String.format("%.1f us", nanos / 1e3);
+        } else if (nanos < 10000000000L) {
+            return String.format("%.1f ms", nanos / 1e6);
+        }
+        return String.format("%.1f s", nanos / 1e9);
+    }
+}
@@ -0,0 +1,195 @@
+package uno;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * <p>
+ * Running totals of a match while it is being played, for watching a long
+ * match from JConsole rather than waiting for its results. The workers add
+ * each game's totals as it completes (the Game and its Hands count what
+ * happens during the game in plain fields), and every total is a LongAdder,
+ * so workers adding at once do not contend with each other, and reading a
+ * total never holds them up.</p>
+ * <p>
+ * The totals count every game played, including those of chunks that were
+ * under way when a match stopped early, so they can run slightly ahead of
+ * the results the match prints.</p>
+ *
+ * @since 3.0
+ */
+public class MatchMetrics implements MatchMetricsMBean {
+
+    /**
+     * The name that publish() registers the metrics under.
+     */
+    public static final String OBJECT_NAME = "uno:type=MatchMetrics";
+
+    private final String[] playerNames;
+    private final long gamesPlanned;
+    private final long startNanos = System.nanoTime();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder turns = new LongAdder();
+    private final LongAdder cardsDrawn = new LongAdder();
+    private final LongAdder remixes = new LongAdder();
+    private final LongAdder illegalMoves = new LongAdder();
+    private final LongAdder missedLegalMoves = new LongAdder();
+    private final LongAdder[] wins;
+    private final LongAdder[] scores;
+    // The count and time at the last read of getRecentGamesPerSecond()
+    private long lastGames;
+    private long lastNanos = startNanos;
+
+    /**
+     * Instantiate the metrics of a match that has just started.
+     *
+     * @param playerNames The names of the players
+     * @param gamesPlanned The number of games the match will play if it does
+     * not stop early
+     */
+    public MatchMetrics(List<String> playerNames, long gamesPlanned) {
+        this.playerNames = playerNames.toArray(new String[playerNames.size()]);
+        this.gamesPlanned = gamesPlanned;
+        wins = new LongAdder[this.playerNames.length];
+        scores = new LongAdder[this.playerNames.length];
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] = new LongAdder();
+            scores[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Register these metrics with the platform MBean server, in place of any
+     * registered by an earlier match. If they cannot be registered, the
+     * match goes on without them.
+     */
+    public void publish() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            System.out.println("Error: Cannot publish match metrics: " + e);
+        }
+    }
+
+    /**
+     * Add the totals of a game that has just been completed.
+     *
+     * @param game The game, still as it was when it ended
+     * @param victory The result of the game
+     * @param seating The player sitting at each position of the game
+     */
+    void recordGame(Game game, Victory victory, int[] seating) {
+        games.increment();
+        turns.add(game.getTurnsPlayed());
+        cardsDrawn.add(game.getCardsDrawn());
+        if (game.getRemixes() > 0) {
+            remixes.add(game.getRemixes());
+        }
+        for (int i = 0; i < game.getNumPlayers(); i++) {
+            Hand h = game.getPlayerAt(i);
+            int illegal = h.takeIllegalMoves();
+            int missed = h.takeMissedLegalMoves();
+            if (illegal > 0) {
+                illegalMoves.add(illegal);
+            }
+            if (missed > 0) {
+                missedLegalMoves.add(missed);
+            }
+        }
+        wins[seating[victory.winningPlayer]].increment();
+        scores[seating[victory.winningPlayer]].add(victory.score);
+    }
+
+    @Override
+    public String[] getPlayerNames() {
+        return playerNames.clone();
+    }
+
+    @Override
+    public long getGamesPlanned() {
+        return gamesPlanned;
+    }
+
+    @Override
+    public long getGamesCompleted() {
+        return games.sum();
+    }
+
+    @Override
+    public double getElapsedSeconds() {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    @Override
+    public double getGamesPerSecond() {
+        return games.sum() / Math.max(getElapsedSeconds(), 1e-9);
+    }
+
+    @Override
+    public synchronized double getRecentGamesPerSecond() {
+        long now = System.nanoTime();
+        long completed = games.sum();
+        double rate = (completed - lastGames) / Math.max((now - lastNanos) / 1e9, 1e-9);
+        lastGames = completed;
+        lastNanos = now;
+        return rate;
+    }
+
+    @Override
+    public long getTurns() {
+        return turns.sum();
+    }
+
+    @Override
+    public double getTurnsPerGame() {
+        long completed = games.sum();
+        return completed == 0 ? 0 : (double) turns.sum() / completed;
+    }
+
+    @Override
+    public long getCardsDrawn() {
+        return cardsDrawn.sum();
+    }
+
+    @Override
+    public long getRemixes() {
+        return remixes.sum();
+    }
+
+    @Override
+    public long getIllegalMoves() {
+        return illegalMoves.sum();
+    }
+
+    @Override
+    public long getMissedLegalMoves() {
+        return missedLegalMoves.sum();
+    }
+
+    @Override
+    public long[] getWins() {
+        return sums(wins);
+    }
+
+    @Override
+    public long[] getScores() {
+        return sums(scores);
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        long[] sums = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) {
+            sums[i] = adders[i].sum();
+        }
+        return sums;
+    }
+}
@@ -0,0 +1,90 @@
+package uno;
+
+/**
+ * <p>
+ * The live telemetry of a match, as published over JMX by MatchMetrics: what
+ * JConsole (or any other JMX client) shows under uno:type=MatchMetrics while
+ * a match is being played.</p>
+ *
+ * @since 3.0
+ */
+public interface MatchMetricsMBean {
+
+    /**
+     * Return the names of the players, in the order of the per-player
+     * attributes.
+     */
+    public String[] getPlayerNames();
+
+    /**
+     * Return the number of games the match will play if it does not stop
+     * early.
+     */
+    public long getGamesPlanned();
+
+    /**
+     * Return the number of games completed so far.
+     */
+    public long getGamesCompleted();
+
+    /**
+     * Return the number of seconds since the match started.
+     */
+    public double getElapsedSeconds();
+
+    /**
+     * Return the number of games completed per second since the match
+     * started.
+     */
+    public double getGamesPerSecond();
+
+    /**
+     * Return the number of games completed per second since this attribute
+     * was last read (or since the match started), which drops towards 0 as
+     * soon as a match stalls.
+     */
+    public double getRecentGamesPerSecond();
+
+    /**
+     * Return the number of turns played in all games completed.
+     */
+    public long getTurns();
+
+    /**
+     * Return the mean number of turns per game completed.
+     */
+    public double getTurnsPerGame();
+
+    /**
+     * Return the number of cards drawn (not counting the deals) in all games
+     * completed.
+     */
+    public long getCardsDrawn();
+
+    /**
+     * Return the number of times a draw pile ran out and was remixed, in all
+     * games completed.
+     */
+    public long getRemixes();
+
+    /**
+     * Return the number of illegal cards the strategies have played.
+     */
+    public long getIllegalMoves();
+
+    /**
+     * Return the number of times a strategy drew when it held a card it could
+     * play.
+     */
+    public long getMissedLegalMoves();
+
+    /**
+     * Return the number of games each player has won so far.
+     */
+    public long[] getWins();
+
+    /**
+     * Return the number of points each player has scored so far.
+     */
+    public long[] getScores();
+}
@@ -2,7 +2,7 @@
 package uno;
 import java.util.List;
 
-public class NumeroUno_UnoPlayer implements UnoPlayer {
+public class NumeroUno_UnoPlayer implements StatelessUnoPlayer {
 
     /**
      * play - This method is called when it's your turn and you need to
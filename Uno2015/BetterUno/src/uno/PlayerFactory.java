@@ -0,0 +1,121 @@
+package uno;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * Creates the UnoPlayer instances of one strategy class. The class and its
+ * no-argument constructor are looked up once, when the factory is first asked
+ * for with forClass(); after that, creating a player is a plain constructor
+ * call through a cached MethodHandle.</p>
+ * <p>
+ * Factories are kept in a registry by class name, so every Game of a match
+ * shares the factories UnoSimulation resolved when it loaded the roster.</p>
+ * <p>
+ * By default every call to newPlayer() returns a new instance. If the
+ * strategy implements StatelessUnoPlayer and sharing is turned on with
+ * setShareStateless(), newPlayer() returns the same instance every time.</p>
+ *
+ * @since 3.0
+ */
+public final class PlayerFactory {
+
+    private static final ConcurrentMap<String, PlayerFactory> REGISTRY = new ConcurrentHashMap<>();
+    private static volatile boolean shareStateless;
+
+    private final String className;
+    private final MethodHandle constructor;
+    private final boolean stateless;
+    private volatile UnoPlayer sharedPlayer;
+
+    private PlayerFactory(String className) throws ReflectiveOperationException {
+        Class<?> playerClass = Class.forName(className);
+        if (!UnoPlayer.class.isAssignableFrom(playerClass)) {
+            throw new ClassCastException(className + " does not implement UnoPlayer");
+        }
+        this.className = className;
+        constructor = MethodHandles.publicLookup()
+                .findConstructor(playerClass, MethodType.methodType(void.class))
+                .asType(MethodType.methodType(UnoPlayer.class));
+        stateless = StatelessUnoPlayer.class.isAssignableFrom(playerClass);
+    }
+
+    /**
+     * Return the factory for the strategy class with the name passed (the full
+     * name, such as "uno.TeamNumeroUno_UnoPlayer"), resolving the class the
+     * first time it is asked for.
+     *
+     * @param className The name of a class that implements UnoPlayer
+     * @return The factory for that class
+     */
+    public static PlayerFactory forClass(String className) {
+        PlayerFactory factory = REGISTRY.get(className);
+        if (factory == null) {
+            try {
+                factory = new PlayerFactory(className);
+            } catch (Exception e) {
+                System.out.println("Problem with " + className + ".");
+                e.printStackTrace();
+                System.exit(1);
+            }
+            PlayerFactory existing = REGISTRY.putIfAbsent(className, factory);
+            if (existing != null) {
+                factory = existing;
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * Turn on or off the sharing of a single instance of each stateless
+     * strategy. This affects the players created from then on.
+     *
+     * @param share Whether newPlayer() should share stateless strategies
+     */
+    public static void setShareStateless(boolean share) {
+        shareStateless = share;
+    }
+
+    /**
+     * Return whether the strategy declares itself stateless by implementing
+     * StatelessUnoPlayer.
+     */
+    public boolean isStateless() {
+        return stateless;
+    }
+
+    /**
+     * Return a player of this factory's strategy: the shared instance, if the
+     * strategy is stateless and sharing is on, and a new instance otherwise.
+     */
+    public UnoPlayer newPlayer() {
+        if (stateless && shareStateless) {
+            UnoPlayer shared = sharedPlayer;
+            if (shared == null) {
+                synchronized (this) {
+                    shared = sharedPlayer;
+                    if (shared == null) {
+                        shared = sharedPlayer = create();
+                    }
+                }
+            }
+            return shared;
+        }
+        return create();
+    }
+
+    private UnoPlayer create() {
+        try {
+            return (UnoPlayer) constructor.invokeExact();
+        } catch (Throwable t) {
+            System.out.println("Problem with " + className + ".");
+            t.printStackTrace();
+            System.exit(1);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package uno;
+
+/**
+ * <p>
+ * A Scoreboard tallies the wins and points collected by each player over the
+ * course of a match. Players are identified by their index in the match roster
+ * (the order of players.txt).</p>
+ * <p>
+ * Alongside the totals, it keeps running statistics of the players' results,
+ * one sample at a time: a sample is either a single game (see record()) or,
+ * in a duplicate match, all the games played on one deal (see recordDeal()).
+ * For each sample it takes every player's share of the wins and points per
+ * game, and it keeps the means of these and their covariances between players
+ * up to date with Welford's method. From these it gives confidence intervals,
+ * and tests whether the leader's advantage over the runner-up is significant,
+ * so a match can stop as soon as it is.</p>
+ * <p>
+ * A Scoreboard is not thread-safe. When a match is played on several worker
+ * threads, each worker tallies its games on its own Scoreboard and the results
+ * are combined with merge().</p>
+ *
+ * @since 3.0
+ */
+public class Scoreboard {
+
+    private final int[] wins;
+    private final long[] scores;
+    private int numGames;
+    private int numSamples;
+    private final double[] meanWins;
+    private final double[] meanScores;
+    // Co-moments (sums of products of deviations from the mean) between players
+    private final double[][] winComoments;
+    private final double[][] scoreComoments;
+    // How long each player's decisions took, and how many went over budget (null until recorded)
+    private LatencyHistogram[] latencies;
+    private int[] overBudget;
+    // Scratch space for the sample being recorded
+    private final double[] sampleWins;
+    private final double[] sampleScores;
+
+    /**
+     * Instantiate an empty Scoreboard for a roster of the given size.
+     *
+     * @param numPlayers The number of players in the match
+     */
+    public Scoreboard(int numPlayers) {
+        wins = new int[numPlayers];
+        scores = new long[numPlayers];
+        meanWins = new double[numPlayers];
+        meanScores = new double[numPlayers];
+        winComoments = new double[numPlayers][numPlayers];
+        scoreComoments = new double[numPlayers][numPlayers];
+        sampleWins = new double[numPlayers];
+        sampleScores = new double[numPlayers];
+    }
+
+    /**
+     * Credit the winner of a single game with the win and the points it
+     * collected. The game is one sample.
+     *
+     * @param v The outcome of the game
+     */
+    public void record(Victory v) {
+        wins[v.winningPlayer]++;
+        scores[v.winningPlayer] += v.score;
+        numGames++;
+        for (int i = 0; i < wins.length; i++) {
+            sampleWins[i] = i == v.winningPlayer ? 1 : 0;
+            sampleScores[i] = i == v.winningPlayer ? v.score : 0;
+        }
+        addSample();
+    }
+
+    /**
+     * Credit the players with the wins and points they collected over the
+     * games played on one deal. The deal is one sample, whose results are the
+     * players' wins and points per game.
+     *
+     * @param dealWins The number of games of the deal each player won
+     * @param dealScores The number of points each player collected
+     * @param dealGames The number of games played on the deal
+     */
+    public void recordDeal(int[] dealWins, long[] dealScores, int dealGames) {
+        numGames += dealGames;
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] += dealWins[i];
+            scores[i] += dealScores[i];
+            sampleWins[i] = (double) dealWins[i] / dealGames;
+            sampleScores[i] = (double) dealScores[i] / dealGames;
+        }
+        addSample();
+    }
+
+    /**
+     * Add the times a player took over their decisions, and the number of
+     * decisions that went over budget, to the player's tallies.
+     *
+     * @param player The player's index in the roster
+     * @param latency The durations of the player's decisions
+     * @param numOverBudget How many of the decisions went over budget
+     */
+    public void recordDecisions(int player, LatencyHistogram latency, int numOverBudget) {
+        if (latencies == null) {
+            latencies = new LatencyHistogram[wins.length];
+            overBudget = new int[wins.length];
+            for (int i = 0; i < wins.length; i++) {
+                latencies[i] = new LatencyHistogram();
+            }
+        }
+        latencies[player].merge(latency);
+        overBudget[player] += numOverBudget;
+    }
+
+    private void addSample() {
+        numSamples++;
+        addSample(sampleWins, meanWins, winComoments);
+        addSample(sampleScores, meanScores, scoreComoments);
+    }
+
+    private void addSample(double[] x, double[] mean, double[][] comoments) {
+        int n = x.length;
+        // Welford: the co-moment grows by (x_i - old mean_i) * (x_j - new mean_j)
+        double shrink = (numSamples - 1.0) / numSamples;
+        for (int i = 0; i < n; i++) {
+            double delta = (x[i] - mean[i]) * shrink;
+            for (int j = 0; j < n; j++) {
+                comoments[i][j] += delta * (x[j] - mean[j]);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            mean[i] += (x[i] - mean[i]) / numSamples;
+        }
+    }
+
+    /**
+     * Add all of the tallies of another Scoreboard (for the same roster) into
+     * this one.
+     *
+     * @param other The Scoreboard to merge into this one
+     */
+    public void merge(Scoreboard other) {
+        int total = numSamples + other.numSamples;
+        if (total > 0) {
+            merge(other, meanWins, other.meanWins, winComoments, other.winComoments, total);
+            merge(other, meanScores, other.meanScores, scoreComoments, other.scoreComoments, total);
+        }
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] += other.wins[i];
+            scores[i] += other.scores[i];
+        }
+        numGames += other.numGames;
+        numSamples = total;
+        if (other.latencies != null) {
+            for (int i = 0; i < wins.length; i++) {
+                recordDecisions(i, other.latencies[i], other.overBudget[i]);
+            }
+        }
+    }
+
+    // Chan et al.'s rule for combining two sets of running moments.
+    private void merge(Scoreboard other, double[] mean, double[] otherMean,
+            double[][] comoments, double[][] otherComoments, int total) {
+        int n = mean.length;
+        double weight = (double) numSamples * other.numSamples / total;
+        for (int i = 0; i < n; i++) {
+            double deltaI = otherMean[i] - mean[i];
+            for (int j = 0; j < n; j++) {
+                comoments[i][j] += otherComoments[i][j] + deltaI * (otherMean[j] - mean[j]) * weight;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            mean[i] += (otherMean[i] - mean[i]) * other.numSamples / total;
+        }
+    }
+
+    public int getNumPlayers() {
+        return wins.length;
+    }
+
+    public int getWins(int player) {
+        return wins[player];
+    }
+
+    public long getScore(int player) {
+        return scores[player];
+    }
+
+    /**
+     * Return the histogram of the times the player took over their decisions,
+     * or null if no decisions have been recorded.
+     */
+    public LatencyHistogram getDecisionLatency(int player) {
+        return latencies == null ? null : latencies[player];
+    }
+
+    /**
+     * Return how many of the player's decisions went over budget.
+     */
+    public int getOverBudget(int player) {
+        return overBudget == null ? 0 : overBudget[player];
+    }
+
+    /**
+     * Return the number of games recorded on this Scoreboard.
+     */
+    public int getNumGames() {
+        return numGames;
+    }
+
+    /**
+     * Return the number of samples (games, or deals in a duplicate match)
+     * recorded on this Scoreboard.
+     */
+    public int getNumSamples() {
+        return numSamples;
+    }
+
+    /**
+     * Return the total number of games recorded on this Scoreboard.
+     */
+    public int getTotalWins() {
+        int total = 0;
+        for (int w : wins) {
+            total += w;
+        }
+        return total;
+    }
+
+    /**
+     * Return the total number of points recorded on this Scoreboard.
+     */
+    public long getTotalScore() {
+        long total = 0;
+        for (long s : scores) {
+            total += s;
+        }
+        return total;
+    }
+
+    /**
+     * Return the fraction of the games recorded that the player won.
+     */
+    public double getWinRate(int player) {
+        return meanWins[player];
+    }
+
+    /**
+     * Return the half-width of the confidence interval, at the two-sided
+     * confidence level whose normal quantile is z (1.96 for 95%), around the
+     * player's win rate.
+     */
+    public double getWinRateError(int player, double z) {
+        return z * Math.sqrt(covariance(winComoments, player, player) / numSamples);
+    }
+
+    /**
+     * Return the mean number of points the player collected per game.
+     */
+    public double getMeanScore(int player) {
+        return meanScores[player];
+    }
+
+    /**
+     * Return the sample variance of the points the player collected per game
+     * (per game on average over a deal, in a duplicate match).
+     */
+    public double getScoreVariance(int player) {
+        return covariance(scoreComoments, player, player);
+    }
+
+    /**
+     * Return the half-width of the confidence interval, at the two-sided
+     * confidence level whose normal quantile is z, around the player's mean
+     * score per game.
+     */
+    public double getMeanScoreError(int player, double z) {
+        return z * Math.sqrt(getScoreVariance(player) / numSamples);
+    }
+
+    private double covariance(double[][] comoments, int i, int j) {
+        return numSamples < 2 ? 0 : comoments[i][j] / (numSamples - 1);
+    }
+
+    /**
+     * Return the two-sided p-value of the hypothesis that the leader (the
+     * player with the most points per game if byScore, and otherwise the most
+     * wins) is no better than the runner-up, or 1 if there are fewer than two
+     * players or samples. The test is a paired z-test on the per-sample
+     * difference between the two players' results.
+     *
+     * @param byScore Whether to compare points per game rather than win rates
+     */
+    public double getLeaderPValue(boolean byScore) {
+        if (wins.length < 2 || numSamples < 2) {
+            return 1;
+        }
+        double[] mean = byScore ? meanScores : meanWins;
+        double[][] comoments = byScore ? scoreComoments : winComoments;
+        int leader = -1;
+        int runnerUp = -1;
+        for (int i = 0; i < wins.length; i++) {
+            if (leader == -1 || mean[i] > mean[leader]) {
+                runnerUp = leader;
+                leader = i;
+            } else if (runnerUp == -1 || mean[i] > mean[runnerUp]) {
+                runnerUp = i;
+            }
+        }
+        double variance = covariance(comoments, leader, leader) + covariance(comoments, runnerUp, runnerUp)
+                - 2 * covariance(comoments, leader, runnerUp);
+        double difference = mean[leader] - mean[runnerUp];
+        if (variance <= 0) {
+            return difference > 0 ? 0 : 1;
+        }
+        double z = difference / Math.sqrt(variance / numSamples);
+        return erfc(z / Math.sqrt(2));
+    }
+
+    /**
+     * The complementary error function, to within 1.2e-7 (Numerical Recipes'
+     * erfcc).
+     */
+    private static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1 / (1 + 0.5 * z);
+        double r = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? r : 2 - r;
+    }
+}
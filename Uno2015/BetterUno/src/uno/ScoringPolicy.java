@@ -0,0 +1,53 @@
+package uno;
+
+/**
+ * <p>
+ * Decides how many points the winner of a game collects. A Game asks its
+ * policy once, when a player goes out; UnoSimulation.SCORING selects the
+ * policy of a match.</p>
+ * <p>
+ * Two policies are provided: STANDARD, the points of the Uno rules, and WINS,
+ * which makes points a count of games won. Any other way of scoring can be
+ * plugged in by implementing this interface. Policies are shared between the
+ * Games of a match, which may be played on several threads at once, so an
+ * implementation should keep no state of its own.</p>
+ *
+ * @since 3.0
+ */
+public interface ScoringPolicy {
+
+    /**
+     * The winner collects the forfeit value (see Hand.countCards()) of every
+     * card left in the other players' hands.
+     */
+    public static final ScoringPolicy STANDARD = new ScoringPolicy() {
+        @Override
+        public int score(int winner, Hand[] hands) {
+            int points = 0;
+            for (Hand h : hands) {
+                points += h.countCards();
+            }
+            return points;
+        }
+    };
+
+    /**
+     * The winner collects one point, whatever the others hold.
+     */
+    public static final ScoringPolicy WINS = new ScoringPolicy() {
+        @Override
+        public int score(int winner, Hand[] hands) {
+            return 1;
+        }
+    };
+
+    /**
+     * Return the points collected by the winner of a game that has just
+     * ended.
+     *
+     * @param winner The seat of the player who went out
+     * @param hands The hands of all the players, by seat, as the game ended
+     * (the winner's is empty)
+     */
+    public int score(int winner, Hand[] hands);
+}
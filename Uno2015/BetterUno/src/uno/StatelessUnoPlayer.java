@@ -0,0 +1,16 @@
+package uno;
+
+/**
+ * <p>
+ * A marker for Uno-playing strategies that keep no state of their own: every
+ * decision depends only on the arguments of the call. A strategy that
+ * implements StatelessUnoPlayer promises that one instance can serve any
+ * number of seats, in any number of games, on any number of threads at once.</p>
+ * <p>
+ * The simulator only takes advantage of this when
+ * UnoSimulation.SHARE_STATELESS_PLAYERS is on; see PlayerFactory.</p>
+ *
+ * @since 3.0
+ */
+public interface StatelessUnoPlayer extends UnoPlayer {
+}
@@ -2,19 +2,22 @@
 
 
 package uno;
-import java.util.ArrayList;
 import java.util.List;
 
-public class TeamNumeroUno_UnoPlayer implements UnoPlayer {
+public class TeamNumeroUno_UnoPlayer implements TunableUnoPlayer {
 
     //The weights serve to establish a priority for special (skip, draw 2 or reverse) cards, when determining 
     //whether or not to switch colors or what color to switch to. More specifically, the ratio between the 
     //weights determines how much more we want to switch to a certain color based on how many specials it    
     //has. These variables come into play in the generateScore() method.
 
-    //Weights determined by extensive testing, used in generating scores later
-    private final double normalWeight = 1; //Weight given to normal, number cards
+    //Weights determined by extensive testing, used in generating scores later (see getParameters() to tune them)
+    private double normalWeight = 1; //Weight given to normal, number cards
     private double specialWeight = 0; //Weight given to specials: skip, draw 2s and reverses, determined in play method
+    private double specialWeightPerPlayer = 1; //specialWeight is this many times the number of players in the game
+    private double switchingOffset = 2; //Subtracted from the switching score before comparing it with the staying score
+
+    private static final Color[] SUIT_COLORS = {Color.RED, Color.YELLOW, Color.GREEN, Color.BLUE}; //The colors a hand can switch to, in tie-breaking order
     
     /**
      * play - This method is called when it's your turn and you need to
@@ -50,15 +53,15 @@ public class TeamNumeroUno_UnoPlayer implements UnoPlayer {
     public int play(List<Card> hand, Card upCard, UnoPlayer.Color calledColor,
         GameState state) {
         
-            if(specialWeight==0) specialWeight=state.getNumCardsInHandsOfUpcomingPlayers().length; //if the special weight is not initialized to a non-zero value, 
-                                                                                                   //set it to the number of players in the game
+            if(specialWeight==0) specialWeight=specialWeightPerPlayer*state.getNumPlayers(); //if the special weight is not initialized to a non-zero value, 
+                                                                                                   //set it in proportion to the number of players in the game
 
             //TEST IF CAN'T PLAY A CARD
             if(handNotLegal(hand, upCard, calledColor)){ 
               return -1; //Return -1 if no card is playable
             }
             
-             if(state.getNumCardsInHandsOfUpcomingPlayers()[0]==1){
+             if(state.getNumCardsInHandOfUpcomingPlayer(0)==1){
                 if(canUseASpecial(hand, upCard, calledColor)){
                     if(getBestSpecial(hand,calledColor)!=-1) return getBestSpecial(hand,calledColor);
                 }
@@ -86,7 +89,7 @@ public class TeamNumeroUno_UnoPlayer implements UnoPlayer {
             if(canSwitch(hand, upCard)){ //if you can switch colors...
                 double switchingScore=getSwitchingScore(hand,upCard); //Generate the score representing the value of switching
                 double stayingScore=getStayingScore(hand,upCard); //Generate a score representing the value of staying
-                double newSScore = switchingScore-2; //Subtracting 2 generates a more accurate switching score as determined by testing
+                double newSScore = switchingScore-switchingOffset; //Subtracting the offset (2 by default) generates a more accurate switching score as determined by testing
                 if (newSScore<0) newSScore=0; //Make newSScore 0 in case it’s negative
                 if(newSScore > stayingScore || stayingScore==0){ //If staying score is less than the switching score or staying score is 0...
                     return getSwitchCard(hand,upCard); //Return the best switch card
@@ -101,104 +104,69 @@ public class TeamNumeroUno_UnoPlayer implements UnoPlayer {
     }
 
     
+    //The weights and the switching offset, for Tuner to search. The scores have always multiplied the count of special
+    //cards by normalWeight and the count of number cards by specialWeight; that swap is kept on purpose, as the tested
+    //defaults depend on it, so the parameters are named after the cards they really weight.
+    @Override
+    public Parameter[] getParameters(){
+        return new Parameter[]{
+            new Parameter("specialCardWeight", 0, 4, 1),
+            new Parameter("numberCardWeightPerPlayer", 0, 4, 1),
+            new Parameter("switchingOffset", 0, 6, 2)
+        };
+    }
+
+    //Play with the values passed, in the order of getParameters()
+    @Override
+    public void setParameters(double[] values){
+        normalWeight=values[0];
+        specialWeightPerPlayer=values[1];
+        switchingOffset=values[2];
+        specialWeight=0; //Recomputed from specialWeightPerPlayer on the next play
+    }
+
     //This method checks if the hand has no playable cards
     public boolean handNotLegal(List<Card> hand, Card upCard,UnoPlayer.Color calledColor){
-        for(Card c : hand){
-            if(c.canPlayOn(upCard, upCard.getColor())||c.getColor().equals(calledColor)) return false; //Through checking each card in the hand, if any cards are playable, return false
-        }
-        return true; //Return true if no cards are playable
+        return !HandView.of(hand).hasPlayableCard(upCard, calledColor); //A single check of the hand's playable-card mask
     }
 
 
     //Checks if the passed List of Cards contains any cards of the color parameter
     public boolean hasCardOfColor(List<Card> hand, UnoPlayer.Color color){
-        for(Card c: hand){ //For each card in the hand...
-            if(c.getColor().equals(color)) return true; //Return true once a card matching the color parameter is found
-        }
-        return false; //If no cards of the color parameter were found, return false
+        return HandView.of(hand).countOf(color)>0; //The hand keeps a running count of each color
     }
     
 
     //Return true if it’s possible for the player to switch colors, given parameters of hand and upCard
     public boolean canSwitch(List<Card> hand, Card upCard){
         if (upCard.getRank().equals(UnoPlayer.Rank.WILD))return false; //Return false if the upCard is a Wild, and the player can’t change the color
-        for(Card c : hand){        
-            if(!c.getColor().equals(upCard.getColor())&&c.getRank().equals(upCard.getRank())&&c.getNumber()==upCard.getNumber())return true; //Return true if any card in the hand matches rank and number of the upCard, but not color.
+        HandView view = HandView.of(hand);
+        for(Color color : SUIT_COLORS){
+            if(canSwitchTo(view,upCard,color))return true; //Return true if any card in the hand matches rank and number of the upCard, but not color.
         }
         return false; //Return false if no potential ‘switch’ cards are found
     }
+
+    //Return true if the hand holds a card of the given color, different from upCard's color, with the same rank and number as upCard
+    private boolean canSwitchTo(HandView hand, Card upCard, Color color){
+        if(color.equals(upCard.getColor())||upCard.getColor().equals(Color.NONE))return false; //Wilds have no same-rank cards of another color
+        return hand.countOfType(Card.of(color,upCard.getRank(),upCard.getNumber()).getId())>0;
+    }
     
     //Generate a score representing how viable it is to switch colors
     public double getSwitchingScore(List<Card> hand, Card upCard){
-        
-        //GENERATE SWITCHING COLOR, RANK, AND NUMBER 
-        //AS WELL AS A SCORE
-            double sScore; //Returned switch score, determined later
-            double redScore,yellowScore,greenScore,blueScore; //A score representing each color’s ‘switch viability’
-
-            List<UnoPlayer.Color> potentialColors = new ArrayList<>(); //List of potential colors to switch to
-            for(Card c : hand){ //For each Card in hand...
-                if(!c.getColor().equals(upCard.getColor())&&!potentialColors.contains(c.getColor())&&c.getRank().equals(upCard.getRank())&&c.getNumber()==upCard.getNumber()){ //if the card’s color is not already in potentialColors, and the card’s color is not the upCard’s color, and the card matches upCard’s rank and number...
-                    potentialColors.add(c.getColor()); //Add the color to potential colors
-                }
-            }
-            
-            //Create 4 lists of cards representing individual colors
-            List<Card> redCards = new ArrayList<>();
-            List<Card> yellowCards = new ArrayList<>();
-            List<Card> greenCards = new ArrayList<>();
-            List<Card> blueCards = new ArrayList<>();
-
-            //Sort the cards in hand into respective lists representing their color
-            for(Card c : hand){
-                if(c.getColor().equals(UnoPlayer.Color.RED)){
-                    redCards.add(c);
-                }
-                if(c.getColor().equals(UnoPlayer.Color.YELLOW)){
-                    yellowCards.add(c);
-                }
-                if(c.getColor().equals(UnoPlayer.Color.GREEN)){
-                    greenCards.add(c);
-                }
-                if(c.getColor().equals(UnoPlayer.Color.BLUE)){
-                    blueCards.add(c);
-                }
-            }
-
-            //Generate a score for each of these lists.
-            redScore = generateScore(redCards);
-            yellowScore = generateScore(yellowCards);
-            greenScore = generateScore(greenCards);
-            blueScore = generateScore(blueCards);
-
-            //Disqualify the color of the upCard, which is not in potentialColors.
-            if(!potentialColors.contains(UnoPlayer.Color.RED))redScore=-1;
-            if(!potentialColors.contains(UnoPlayer.Color.YELLOW))yellowScore=-1;
-            if(!potentialColors.contains(UnoPlayer.Color.GREEN))greenScore=-1;
-            if(!potentialColors.contains(UnoPlayer.Color.BLUE))blueScore=-1;
-
-            //The overall switching score is set to the maximum of the generated color scores and returned
-            sScore = Math.max(Math.max(redScore,yellowScore),Math.max(greenScore,blueScore));
-            
+        HandView view = HandView.of(hand); //Per-color counts are kept up to date by the hand itself
+        double sScore=-1; //Colors we can't switch to are disqualified with a score of -1
+        for(Color color : SUIT_COLORS){
+            if(canSwitchTo(view,upCard,color)) sScore=Math.max(sScore,generateScore(view,color)); //The overall switching score is the maximum of the potential colors' scores
+        }
         return sScore;
     }
     
     
     //Returns a double representing the viability of preserving upCard's color in your turn
     public double getStayingScore(List<Card> hand, Card upCard){
-        //GENERATE STAYING COLOR, RANK, AND NUMBER
-        //AS WELL AS A SCORE
-            double Score;
-            
-            List<Card> sameColorCards = new ArrayList<>(); //Cards in hand that have the same color as the upCard
-                    
-            for(Card c: hand){
-                if(c.getColor().equals(upCard.getColor())) sameColorCards.add(c);//Add the card to the sameColorCards list if they have the same color.
-            }
-            
-            Score = generateScore(sameColorCards);//Generate the score of this list, representing the viability of maintaining color
-            
-        return Score;
+        return generateScore(HandView.of(hand),upCard.getColor()); //Generate the score of the cards with the upCard's color, representing the viability of maintaining color
     }
     
     
@@ -212,33 +180,12 @@ public class TeamNumeroUno_UnoPlayer implements UnoPlayer {
      */
     public UnoPlayer.Color callColor(List<Card> hand) {
 
-        //Count of 'normal' number cards in respective colors
-        double yellowCount=0;
-        double greenCount=0;
-        double blueCount=0;
-        double redCount=0;
-        double yellowSCount=0;
-        double greenSCount=0;
-        double blueSCount=0;
-        double redSCount=0;
-
-        //Count the cards in hand, in terms of color and rank
-        for(Card c : hand){
-            if(c.getColor().equals(Color.RED)&&c.getRank().equals(Rank.NUMBER)) redCount++;
-            if(c.getColor().equals(Color.BLUE)&&c.getRank().equals(Rank.NUMBER)) blueCount++;
-            if(c.getColor().equals(Color.YELLOW)&&c.getRank().equals(Rank.NUMBER)) yellowCount++;
-            if(c.getColor().equals(Color.GREEN)&&c.getRank().equals(Rank.NUMBER)) greenCount++;
-            
-            if(c.getColor().equals(Color.RED)&&!c.getRank().equals(Rank.NUMBER)) redSCount++;
-            if(c.getColor().equals(Color.BLUE)&&!c.getRank().equals(Rank.NUMBER)) blueSCount++;
-            if(c.getColor().equals(Color.YELLOW)&&!c.getRank().equals(Rank.NUMBER)) yellowSCount++;
-            if(c.getColor().equals(Color.GREEN)&&!c.getRank().equals(Rank.NUMBER)) greenSCount++;
-        }
-        
-        yellowCount=yellowSCount+yellowCount;
-        greenCount=greenSCount+greenCount;
-        blueCount=blueSCount+blueCount;
-        redCount=redSCount+redCount;
+        //Count of cards (numbers and specials alike) in respective colors, kept up to date by the hand
+        HandView view = HandView.of(hand);
+        double yellowCount=view.countOf(Color.YELLOW);
+        double greenCount=view.countOf(Color.GREEN);
+        double blueCount=view.countOf(Color.BLUE);
+        double redCount=view.countOf(Color.RED);
         
         //Return the color with the highest count found.
         if(redCount>blueCount&&redCount>yellowCount&&redCount>greenCount) return Color.RED;
@@ -272,86 +219,27 @@ public class TeamNumeroUno_UnoPlayer implements UnoPlayer {
         return normalCount*normalWeight+specialCount*specialWeight; //Use predetermined weights as coefficients to respective counts and sum them to generate the score
     }
 
+    //Same score as generateScore(List), computed from the hand's running counts of the given color instead of a list of those cards
+    private double generateScore(HandView hand, Color color){
+        return hand.countSpecials(color)*normalWeight+hand.countOf(color,Rank.NUMBER)*specialWeight;
+    }
+
     //Returns the index of the best card with a different color from that of upCard. 
     private int getSwitchCard(List<Card> hand, Card upCard) {
-        //GENERATE SWITCHING COLOR, RANK, AND NUMBER
-            Color sColor=null; //optimal color to switch to
-            double sScore; //score of the cards of this color
-            double redScore,yellowScore,greenScore,blueScore; //Respective scores representing cards of the colors in the titles
-
-
-
-            List<Color> potentialColors = new ArrayList<>(); //List of potential colors to switch to
-            for(Card c : hand){ //For each card in hand
-                if(!c.getColor().equals(upCard.getColor()) //If card's color doesn't match upCard's color
-                        &&!potentialColors.contains(c.getColor()) //...And the color isn't already in potentialColors
-                        &&c.getRank().equals(upCard.getRank()) //And the card matches upCard's rank...
-                        &&c.getNumber()==upCard.getNumber()){ //And the card matches upCard's number...
-                    potentialColors.add(c.getColor()); //Add the card's color to potentialColors
-                }
-            }
-
-            //Lists representing cards in hand of respective colors
-            List<Card> redCards = new ArrayList<>();
-            List<Card> yellowCards = new ArrayList<>();
-            List<Card> greenCards = new ArrayList<>();
-            List<Card> blueCards = new ArrayList<>();
-
-            //Sort the cards in hand into the lists by adding them to theit respective lists by color
-            for(Card c : hand){
-                if(c.getColor().equals(UnoPlayer.Color.RED)){
-                    redCards.add(c);
-                }
-                if(c.getColor().equals(UnoPlayer.Color.YELLOW)){
-                    yellowCards.add(c);
-                }
-                if(c.getColor().equals(UnoPlayer.Color.GREEN)){
-                    greenCards.add(c);
-                }
-                if(c.getColor().equals(UnoPlayer.Color.BLUE)){
-                    blueCards.add(c);
-                }
+        HandView view = HandView.of(hand);
+        Color sColor=null; //optimal color to switch to
+        double sScore=-1; //score of the cards of this color
+        for(Color color : SUIT_COLORS){ //Colors are tried in a fixed order, so ties go to the first; switching to either one would be tactically the same based on our own hand
+            if(canSwitchTo(view,upCard,color)&&generateScore(view,color)>sScore){
+                sScore=generateScore(view,color);
+                sColor=color;
             }
-
-            //Generate a score for each color via the lists
-            redScore = generateScore(redCards);
-            yellowScore = generateScore(yellowCards);
-            greenScore = generateScore(greenCards);
-            blueScore = generateScore(blueCards);
-
-            //Discount the score based on the color of upCard
-            if(!potentialColors.contains(UnoPlayer.Color.RED))redScore=-1;
-            if(!potentialColors.contains(UnoPlayer.Color.YELLOW))yellowScore=-1;
-            if(!potentialColors.contains(UnoPlayer.Color.GREEN))greenScore=-1;
-            if(!potentialColors.contains(UnoPlayer.Color.BLUE))blueScore=-1;
-
-            //Find the maximum of these four scores
-            sScore = Math.max(Math.max(redScore,yellowScore),Math.max(greenScore,blueScore));
-
-            //Determine the color of this score; Even if two colors' scores are equal to the max score, switching to either one would be tactically the same based on our own hand
-            if(sScore==redScore){
-                sColor = UnoPlayer.Color.RED;
-            } else if(sScore==yellowScore){
-                sColor = UnoPlayer.Color.YELLOW;
-            } else if(sScore==greenScore){
-                sColor = UnoPlayer.Color.GREEN;
-            } else if(sScore==blueScore){
-                sColor = UnoPlayer.Color.BLUE;
-            }
-            
-        //Return the index of the card in hand of the switch color, and upCard's rank and number, via the getCard method
-        return getCard(hand, sColor ,upCard.getRank(),upCard.getNumber());
-    }
-
-    //Returns the index within hand of the first card in the hand matching color, rank and number parameters
-    private int getCard(List<Card> hand, Color color, Rank rank, int number) {
-        for(int i = 0; i<hand.size(); i++){
-            Card c = hand.get(i);
-            if(c.getColor().equals(color)&&c.getRank().equals(rank)&&c.getNumber()==number) return i; //if the card at position i matches color rank and number parameters, return i, 
         }
-        return -1;//If no card found, return -1 (draw)
+        if(sColor==null)return -1;
+        //Return the index of the card in hand of the switch color, and upCard's rank and number
+        return view.indexOfType(Card.of(sColor,upCard.getRank(),upCard.getNumber()).getId());
     }
-    
+
     //Returns the index within hand of the first card in the hand to match the parameter
     private int getCard(List<Card> hand, Card c) {
         for(int i = 0; i<hand.size(); i++){
@@ -362,34 +250,8 @@ public class TeamNumeroUno_UnoPlayer implements UnoPlayer {
     
     //Returns the best card in the hand of the given color
     private int getBestCard(List<Card> hand, UnoPlayer.Color color) {
-        Card card=null; //Initialize the card
-        for(Card c : hand){ //For each card in the hand
-            if(c.getColor().equals(color)){ //if the card matches the color
-                if(card==null){
-                    card=c; //if the card is not yet initialized to an actual object, set it equal to this card
-                }else {
-                    for(int i=0;i<hand.size();i++){//For each card in hand
-                        if(hand.get(i).getColor().equals(color)){//If hand matches color
-                            int num=c.getNumber();//Compare the value of the cards based on number
-                            int onum=card.getNumber();//onum represents the number of the best card found so far, num represents the number of the current card
-                            //Account for specials, placing draw-2s at the most value, then skips, and then reverses, with respective values of 12, then 11, then 10.
-                            if(c.getRank().equals(Rank.REVERSE))num=10; 
-                            if(c.getRank().equals(Rank.SKIP))num=11;
-                            if(c.getRank().equals(Rank.DRAW_TWO))num=12;
-                            if(card.getRank().equals(Rank.REVERSE))onum=10;
-                            if(card.getRank().equals(Rank.SKIP))onum=11;
-                            if(card.getRank().equals(Rank.DRAW_TWO))onum=12;
-                            
-                            if(num>onum){
-                                card=c;//If the numerical value of the current card is greater than that of the supposedly best card so far, then set card equal to the current card, thus deeming it the best card in the hand so far.
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        if(card==null)return -1; //If no card is found of this color, return -1 (draw)
-        return getCard(hand,card); //Return the card
+        //Draw-2s are worth the most, then skips, then reverses, then the numbers by value; the hand tracks which of these it holds
+        return HandView.of(hand).bestIndexOf(color); //-1 (draw) if no card is found of this color
     }
 
     
@@ -411,10 +273,8 @@ public class TeamNumeroUno_UnoPlayer implements UnoPlayer {
     
     //Returns whether or not you can play a special card
      public boolean canUseASpecial(List<Card> hand, Card upCard,Color calledColor){
-        for(Card c : hand){//For each card in hand,
-            if((c.canPlayOn(upCard, upCard.getColor())||c.getColor().equals(calledColor))&&(c.getRank().equals(Rank.WILD_D4)||c.getRank().equals(Rank.DRAW_TWO)||c.getRank().equals(Rank.SKIP)||c.getRank().equals(Rank.REVERSE))) return true; //If the card can play on the upCard or on calledcolor AND is a special card, return true
-        }
-        return false;//if no such card is found, return false
+        long specials = CardCodes.rankMask(Rank.WILD_D4)|CardCodes.rankMask(Rank.DRAW_TWO)|CardCodes.rankMask(Rank.SKIP)|CardCodes.rankMask(Rank.REVERSE); //Mask of all special card types
+        return (HandView.of(hand).getPlayableMask(upCard, calledColor) & specials) != 0; //True if any playable card in hand is a special card
     }
 
     //Returns the index within hand of the best special card
@@ -0,0 +1,81 @@
+package uno;
+
+import java.util.List;
+import uno.UnoPlayer.Color;
+
+/**
+ * <p>
+ * One test case of TestCaseProcessor: a hand, the up card, the called color
+ * and the plays that are valid in that situation. Cards are stored as card ids
+ * (see CardCodes), and the valid plays as a bitmask over hand indexes, so a
+ * hand holds at most MAX_HAND_SIZE cards. An empty mask means that no card can
+ * be played, and -1 (draw) is the only valid play.</p>
+ * <p>
+ * A TestCase is mutable so that readers can fill the same object over and
+ * over instead of allocating one per case.</p>
+ *
+ * @since 3.0
+ */
+final class TestCase {
+
+    /**
+     * The largest hand a test case can hold.
+     */
+    static final int MAX_HAND_SIZE = 64;
+
+    final byte[] hand = new byte[MAX_HAND_SIZE];
+    int handSize;
+    int upCard;
+    Color calledColor;
+    long validPlays;
+
+    /**
+     * Return whether the value passed is a valid return value of play() for
+     * this case.
+     */
+    boolean isValidPlay(int index) {
+        if (index == -1) {
+            return validPlays == 0;
+        }
+        return index >= 0 && index < handSize && (validPlays & (1L << index)) != 0;
+    }
+
+    /**
+     * Fill the hand passed with the cards of this case, in order.
+     */
+    void dealInto(Hand h) {
+        h.clear();
+        for (int i = 0; i < handSize; i++) {
+            h.addCard(Card.of(hand[i]));
+        }
+    }
+
+    /**
+     * Return the valid plays as a list of the values play() may return, for
+     * messages.
+     */
+    String validPlaysString() {
+        if (validPlays == 0) {
+            return "-1";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < handSize; i++) {
+            if ((validPlays & (1L << i)) != 0) {
+                if (sb.length() > 0) {
+                    sb.append(',');
+                }
+                sb.append(i);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Return the cards of the hand as a list, for callers that want Cards.
+     */
+    List<Card> handCards() {
+        Hand h = new Hand();
+        dealInto(h);
+        return h.getView();
+    }
+}
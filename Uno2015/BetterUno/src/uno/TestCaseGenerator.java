@@ -0,0 +1,147 @@
+package uno;
+
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import uno.UnoPlayer.Color;
+
+/**
+ * <p>
+ * Generates random test cases from a seed. Case number i of a seed is always
+ * the same case, whichever generator makes it and in whatever order, so
+ * generators with the same seed can share out the cases of a run between
+ * threads without materializing them, and any failing case can be made again
+ * from its seed and number.</p>
+ * <p>
+ * A case is dealt from a full deck: a hand of 1 to maxHandSize cards, then the
+ * up card. If the up card is a wild, the called color is one of the four
+ * suits, and otherwise it is Color.NONE. The valid plays are worked out by
+ * validPlays(), the reference oracle.</p>
+ * <p>
+ * A generator keeps a scratch copy of the deck, so it must only be used by one
+ * thread at a time. As a program, TestCaseGenerator writes generated cases to
+ * a file in the binary test case format:</p>
+ * <pre>
+ * java uno.TestCaseGenerator numCases seed testCases.bin
+ * </pre>
+ *
+ * @since 3.0
+ */
+public final class TestCaseGenerator {
+
+    /**
+     * The largest hand dealt by default, which is also the largest hand in
+     * testCases.txt.
+     */
+    static final int DEFAULT_MAX_HAND_SIZE = 20;
+
+    private static final Color[] SUIT_COLORS = {Color.RED, Color.YELLOW, Color.GREEN, Color.BLUE};
+    private static final byte[] FULL_DECK = new byte[Deck.DECK_SIZE];
+
+    static {
+        Deck deck = new Deck(new SplittableRandom(0));
+        for (int i = 0; i < FULL_DECK.length; i++) {
+            try {
+                FULL_DECK[i] = (byte) deck.drawId();
+            } catch (EmptyDeckException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private final long seed;
+    private final int maxHandSize;
+    private final byte[] deck = new byte[Deck.DECK_SIZE];
+    private long state;
+
+    /**
+     * Instantiate a generator of the cases of the seed passed, with hands of
+     * up to DEFAULT_MAX_HAND_SIZE cards.
+     */
+    TestCaseGenerator(long seed) {
+        this(seed, DEFAULT_MAX_HAND_SIZE);
+    }
+
+    /**
+     * Instantiate a generator of the cases of the seed passed, with hands of
+     * up to maxHandSize cards.
+     */
+    TestCaseGenerator(long seed, int maxHandSize) {
+        if (maxHandSize < 1 || maxHandSize > Math.min(TestCase.MAX_HAND_SIZE, Deck.DECK_SIZE - 1)) {
+            throw new IllegalArgumentException("Bad maximum hand size: " + maxHandSize);
+        }
+        this.seed = seed;
+        this.maxHandSize = maxHandSize;
+    }
+
+    /**
+     * Fill the TestCase passed with case number index of this generator's
+     * seed.
+     */
+    void generate(long index, TestCase into) {
+        state = UnoSimulation.seedForGame(seed, index);
+        System.arraycopy(FULL_DECK, 0, deck, 0, deck.length);
+        int handSize = 1 + nextInt(maxHandSize);
+        // Deal handSize + 1 cards by a partial Fisher-Yates shuffle.
+        for (int i = 0; i <= handSize; i++) {
+            int j = i + nextInt(deck.length - i);
+            byte swap = deck[i];
+            deck[i] = deck[j];
+            deck[j] = swap;
+        }
+        System.arraycopy(deck, 0, into.hand, 0, handSize);
+        into.handSize = handSize;
+        into.upCard = deck[handSize];
+        into.calledColor = CardCodes.followedByCall(into.upCard) ? SUIT_COLORS[nextInt(SUIT_COLORS.length)] : Color.NONE;
+        into.validPlays = validPlays(into.hand, handSize, into.upCard, into.calledColor);
+    }
+
+    /**
+     * The reference oracle: return the mask (bit i for hand index i) of the
+     * cards of the hand that can legally be played. Legality comes straight
+     * from the rules in Card.canPlayOnByRules(), not from the precomputed
+     * tables the engine plays with, so it is an independent check of both
+     * the tables and the strategy.
+     */
+    static long validPlays(byte[] hand, int handSize, int upCard, Color calledColor) {
+        Card up = Card.of(upCard);
+        long validPlays = 0;
+        for (int i = 0; i < handSize; i++) {
+            if (Card.of(hand[i]).canPlayOnByRules(up, calledColor)) {
+                validPlays |= 1L << i;
+            }
+        }
+        return validPlays;
+    }
+
+    // A SplitMix64 stream, so a case is made without allocating a random source.
+    private int nextInt(int bound) {
+        state += 0x9E3779B97F4A7C15L;
+        long z = state;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (int) (((z >>> 32) * bound) >>> 32);
+    }
+
+    public static void main(String args[]) {
+        if (args.length != 3) {
+            System.out.println("Usage: java uno.TestCaseGenerator <number of cases> <seed> <binary output file>");
+            System.exit(2);
+        }
+        try {
+            long numCases = Long.parseLong(args[0]);
+            TestCaseGenerator generator = new TestCaseGenerator(Long.parseLong(args[1]));
+            TestCase testCase = new TestCase();
+            try (BinaryTestCaseWriter out = new BinaryTestCaseWriter(Paths.get(args[2]))) {
+                for (long i = 0; i < numCases; i++) {
+                    generator.generate(i, testCase);
+                    out.write(testCase);
+                }
+            }
+            System.out.println(numCases + " test cases written to " + args[2]);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
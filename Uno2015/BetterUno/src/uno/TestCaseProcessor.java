@@ -1,17 +1,69 @@
 package uno;
 
 import java.io.*;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+/**
+ * <p>
+ * Checks a strategy against the test hands of a test case file: for every
+ * hand, play() must return one of the valid plays and callColor() must return
+ * a real color. The first failure is printed and ends the program.</p>
+ * <p>
+ * The file, in the text format of testCases.txt or in the binary format
+ * written by TestCaseConverter, is streamed into batches of BATCH_SIZE hands,
+ * and the batches are checked in parallel on NUM_THREADS worker threads, each
+ * with its own instance of the strategy. Results are taken in
+ * file order, so the output (and the failure reported) is the same as if the
+ * hands had been checked one after the other. Only a few batches are in
+ * flight at once, so memory use does not grow with the file.</p>
+ * <p>
+ * It can also check a strategy against random hands from a
+ * TestCaseGenerator, whose valid plays come from the generator's reference
+ * oracle. Each worker generates the hands of its own batches, so any number
+ * of hands can be checked in constant memory.</p>
+ */
 public class TestCaseProcessor {
 
     public static String classname = "TeamDoge";
     public String filename = "testCases.txt";
-    private UnoPlayer thePlayer;
+    //How many worker threads check test hands
+    public static int NUM_THREADS = Runtime.getRuntime().availableProcessors();
+    //How many test hands a worker checks at a time
+    public static final int BATCH_SIZE = 4096;
+    private final PlayerFactory factory;
+    private long randomSeed;
+    private final ThreadLocal<Checker> checkers = new ThreadLocal<Checker>() {
+        @Override
+        protected Checker initialValue() {
+            return new Checker(factory.newPlayer(), new TestCaseGenerator(randomSeed));
+        }
+    };
 
+    /**
+     * Check the strategy named by the first command-line argument (the
+     * prefix of its _UnoPlayer class), or classname if there is none. The
+     * second argument names the test case file to check it against, filename
+     * if there is none. Instead of a file, "-random numCases [seed]" checks it
+     * against that many cases made by a TestCaseGenerator.
+     */
     public static void main(String args[]) {
         try {
-            new TestCaseProcessor(classname).doIt();
+            TestCaseProcessor processor = new TestCaseProcessor(args.length > 0 ? args[0] : classname);
+            if (args.length > 1 && args[1].equals("-random")) {
+                long numCases = Long.parseLong(args[2]);
+                long seed = args.length > 3 ? Long.parseLong(args[3]) : new SplittableRandom().nextLong();
+                processor.doItRandom(numCases, seed);
+            } else {
+                if (args.length > 1) {
+                    processor.filename = args[1];
+                }
+                processor.doIt();
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -19,110 +71,195 @@ public class TestCaseProcessor {
 
     private TestCaseProcessor(String classname) throws Exception {
         this.classname = classname;
-        thePlayer = (UnoPlayer) Class.forName("uno." + classname + "_UnoPlayer").newInstance();
+        factory = PlayerFactory.forClass("uno." + classname + "_UnoPlayer");
     }
 
     private void doIt() throws Exception {
-        int numHandsTested = 0;
-        BufferedReader br = new BufferedReader(new FileReader(filename));
-        String handLine = br.readLine();
-        while (handLine != null) {
-            Scanner handLineScanner = new Scanner(handLine).
-                    useDelimiter(",");
-            ArrayList<Card> hand = new ArrayList<Card>();
-            while (handLineScanner.hasNext()) {
-                String cardString = handLineScanner.next();
-                Scanner cardStringScanner = new Scanner(cardString);
-                Card card = new Card(
-                        UnoPlayer.Color.valueOf(cardStringScanner.next()),
-                        UnoPlayer.Rank.valueOf(cardStringScanner.next()),
-                        cardStringScanner.nextInt());
-                hand.add(card);
-            }
+        try (TestCaseSource reader = TestCaseSource.open(Paths.get(filename))) {
+            check(reader, 0);
+        }
+    }
+
+    /**
+     * Check the strategy against cases 0 to numCases-1 of the seed passed.
+     * The workers generate the cases themselves, so they are never all in
+     * memory and the reading thread only hands out ranges of case numbers.
+     */
+    private void doItRandom(long numCases, long seed) throws Exception {
+        System.out.println("Checking " + numCases + " random test hands (seed " + seed + ")");
+        randomSeed = seed;
+        check(null, numCases);
+    }
 
-            String upCardLine = br.readLine();
-            Scanner upCardLineScanner = new Scanner(upCardLine);
-            Card upCard = new Card(
-                    UnoPlayer.Color.valueOf(upCardLineScanner.next()),
-                    UnoPlayer.Rank.valueOf(upCardLineScanner.next()),
-                    upCardLineScanner.nextInt());
-
-            String calledColorLine = br.readLine();
-            UnoPlayer.Color calledColor = UnoPlayer.Color.valueOf(calledColorLine);
-
-            ArrayList<Integer> validPlays = new ArrayList<Integer>();
-            String validPlaysLine = br.readLine();
-            Scanner validPlaysScanner =
-                    new Scanner(validPlaysLine).useDelimiter(",");
-            while (validPlaysScanner.hasNextInt()) {
-                validPlays.add(new Integer(validPlaysScanner.nextInt()));
+    /**
+     * Check the cases of the reader passed or, if it is null, numCases
+     * generated cases.
+     */
+    private void check(TestCaseSource reader, long numCases) throws Exception {
+        long numHandsTested = 0;
+        long nextIndex = 0;
+        int maxInFlight = 2 * NUM_THREADS;
+        ExecutorService pool = Executors.newFixedThreadPool(NUM_THREADS);
+        ArrayDeque<Future<Batch>> inFlight = new ArrayDeque<>();
+        ArrayDeque<Batch> free = new ArrayDeque<>();
+        try {
+            boolean more = true;
+            while (more) {
+                Batch batch = free.isEmpty() ? new Batch() : free.poll();
+                batch.size = 0;
+                batch.firstIndex = nextIndex;
+                if (reader != null) {
+                    while (batch.size < BATCH_SIZE && reader.next(batch.cases[batch.size])) {
+                        batch.size++;
+                    }
+                    more = batch.size == BATCH_SIZE;
+                } else {
+                    batch.size = (int) Math.min(BATCH_SIZE, numCases - nextIndex);
+                    batch.generated = true;
+                    more = nextIndex + batch.size < numCases;
+                }
+                nextIndex += batch.size;
+                if (batch.size > 0) {
+                    inFlight.add(pool.submit(batch));
+                }
+                if (inFlight.size() >= maxInFlight) {
+                    Batch done = inFlight.poll().get();
+                    numHandsTested = report(done, numHandsTested);
+                    free.add(done);
+                }
             }
+            while (!inFlight.isEmpty()) {
+                numHandsTested = report(inFlight.poll().get(), numHandsTested);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
 
-            testHand(hand, upCard, calledColor, validPlays);
+    /**
+     * Print the outcome of a checked batch, whose hands follow the
+     * numHandsTested hands already reported, and return the new number of
+     * hands reported.
+     */
+    private long report(Batch batch, long numHandsTested) {
+        for (int i = 0; i < batch.size; i++) {
+            if (i == batch.failedAt) {
+                if (batch.generated) {
+                    System.out.println("Random test hand " + (batch.firstIndex + i) + " of seed " + randomSeed + ":");
+                }
+                System.out.print(batch.failure);
+                System.exit(batch.exitCode);
+            }
             numHandsTested++;
-
             if (numHandsTested < 100 || numHandsTested % 100 == 0) {
                 System.out.println(numHandsTested + " test hands passed!");
             }
-
-            br.readLine(); // consume --------- delimiter
-
-            handLine = br.readLine();
         }
+        return numHandsTested;
     }
 
-    private void testHand(
-            List<Card> hand, Card upCard,
-            UnoPlayer.Color calledColor,
-            ArrayList<Integer> validPlays) throws Exception {
+    /**
+     * A run of consecutive test hands, from the file or generated, checked as
+     * one task by whichever worker picks it up.
+     */
+    private final class Batch implements Callable<Batch> {
 
-        int cardPlayed =
-                thePlayer.play(hand, upCard, calledColor, new GameState());
+        final TestCase[] cases = new TestCase[BATCH_SIZE];
+        int size;
+        long firstIndex;
+        boolean generated;
+        int failedAt;
+        String failure;
+        int exitCode;
 
-        if (!validPlays.contains(new Integer(cardPlayed))) {
-            System.out.println("Whoops -- your play() method has an error!");
-            System.out.println("You were given this hand:");
-            for (int i = 0; i < hand.size(); i++) {
-                System.out.println("  " + i + ". " + hand.get(i));
+        Batch() {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                cases[i] = new TestCase();
             }
+        }
 
-            System.out.println("and the up card was: " + upCard);
-            if (upCard.getRank() == UnoPlayer.Rank.WILD
-                    || upCard.getRank() == UnoPlayer.Rank.WILD_D4) {
-                System.out.println("and the called color was: " + calledColor);
-            }
-            System.out.println("and you (wrongly) returned "
-                    + cardPlayed + ".");
-            System.out.print("Valid plays would have included: ");
-            for (int i = 0; i < validPlays.size(); i++) {
-                System.out.print(validPlays.get(i));
-                if (i < validPlays.size() - 1) {
-                    System.out.print(",");
+        @Override
+        public Batch call() {
+            Checker checker = checkers.get();
+            failedAt = -1;
+            for (int i = 0; i < size; i++) {
+                if (generated) {
+                    checker.generator.generate(firstIndex + i, cases[i]);
+                }
+                failure = checker.testHand(cases[i]);
+                if (failure != null) {
+                    failedAt = i;
+                    exitCode = checker.exitCode;
+                    break;
                 }
             }
-            System.out.println();
-            System.exit(3);
+            return this;
+        }
+    }
+
+    /**
+     * The strategy instance, hand, GameState and case generator one worker
+     * thread checks its hands with.
+     */
+    private static final class Checker {
+
+        private final UnoPlayer thePlayer;
+        private final Hand hand = new Hand();
+        private final GameState state = new GameState();
+        final TestCaseGenerator generator;
+        int exitCode;
+
+        Checker(UnoPlayer thePlayer, TestCaseGenerator generator) {
+            this.thePlayer = thePlayer;
+            this.generator = generator;
         }
 
-        UnoPlayer.Color color = thePlayer.callColor(hand);
+        /**
+         * Check one test hand, and return null if the strategy passed or the
+         * message to print if it failed.
+         */
+        String testHand(TestCase testCase) {
+            testCase.dealInto(hand);
+            List<Card> cards = hand.getView();
+            Card upCard = Card.of(testCase.upCard);
+            UnoPlayer.Color calledColor = testCase.calledColor;
 
-        if (color != UnoPlayer.Color.RED && color != UnoPlayer.Color.BLUE && color
-                != UnoPlayer.Color.GREEN && color != UnoPlayer.Color.YELLOW) {
+            int cardPlayed = thePlayer.play(cards, upCard, calledColor, state);
 
-            System.out.println("Whoops -- your callColor() method has an error!");
-            System.out.println("You were given this hand:");
-            for (int i = 0; i < hand.size(); i++) {
-                System.out.println("  " + i + ". " + hand.get(i));
+            if (!testCase.isValidPlay(cardPlayed)) {
+                StringBuilder sb = new StringBuilder();
+                sb.append("Whoops -- your play() method has an error!\n");
+                describe(sb, testCase, upCard);
+                sb.append("and you (wrongly) returned ").append(cardPlayed).append(".\n");
+                sb.append("Valid plays would have included: ").append(testCase.validPlaysString()).append('\n');
+                exitCode = 3;
+                return sb.toString();
             }
 
-            System.out.println("and the up card was: " + upCard);
+            UnoPlayer.Color color = thePlayer.callColor(cards);
+
+            if (color != UnoPlayer.Color.RED && color != UnoPlayer.Color.BLUE && color
+                    != UnoPlayer.Color.GREEN && color != UnoPlayer.Color.YELLOW) {
+                StringBuilder sb = new StringBuilder();
+                sb.append("Whoops -- your callColor() method has an error!\n");
+                describe(sb, testCase, upCard);
+                sb.append("and you (wrongly) returned ").append(color).append(".\n");
+                exitCode = 4;
+                return sb.toString();
+            }
+            return null;
+        }
+
+        private void describe(StringBuilder sb, TestCase testCase, Card upCard) {
+            sb.append("You were given this hand:\n");
+            for (int i = 0; i < testCase.handSize; i++) {
+                sb.append("  ").append(i).append(". ").append(Card.of(testCase.hand[i])).append('\n');
+            }
+            sb.append("and the up card was: ").append(upCard).append('\n');
             if (upCard.getRank() == UnoPlayer.Rank.WILD
                     || upCard.getRank() == UnoPlayer.Rank.WILD_D4) {
-                System.out.println("and the called color was: " + calledColor);
+                sb.append("and the called color was: ").append(testCase.calledColor).append('\n');
             }
-            System.out.println("and you (wrongly) returned " + color + ".");
-            System.exit(4);
         }
-
     }
 }
@@ -0,0 +1,232 @@
+package uno;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import uno.UnoPlayer.Color;
+import uno.UnoPlayer.Rank;
+
+/**
+ * <p>
+ * Reads the text test case format of testCases.txt one case at a time. Each
+ * case is five lines: the hand, as comma-separated cards; the up card; the
+ * called color; the valid plays, as comma-separated indexes (or -1); and a
+ * delimiter line. A card is written as its color, rank and number separated
+ * by spaces, <i>e.g.</i> "RED NUMBER 7" or "NONE WILD -1".</p>
+ * <p>
+ * The file is streamed through a fixed buffer from a FileChannel and
+ * tokenized byte by byte, so reading a case allocates nothing and the memory
+ * used does not grow with the file.</p>
+ *
+ * @since 3.0
+ */
+final class TestCaseReader implements TestCaseSource {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final Color[] COLORS = Color.values();
+    private static final Rank[] RANKS = Rank.values();
+    private static final byte[][] COLOR_NAMES = names(COLORS);
+    private static final byte[][] RANK_NAMES = names(RANKS);
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final byte[] word = new byte[32];
+    private int wordLength;
+    private int line = 1;
+
+    /**
+     * Open the test case file passed for reading.
+     */
+    TestCaseReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        buffer.flip();
+    }
+
+    private static byte[][] names(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return names;
+    }
+
+    @Override
+    public boolean next(TestCase into) throws IOException {
+        int c = peek();
+        if (c == -1) {
+            return false;
+        }
+        into.handSize = 0;
+        if (c != '\n') {
+            while (true) {
+                if (into.handSize == TestCase.MAX_HAND_SIZE) {
+                    throw error("hand has more than " + TestCase.MAX_HAND_SIZE + " cards");
+                }
+                into.hand[into.handSize++] = (byte) readCard();
+                c = read();
+                if (c == '\n' || c == -1) {
+                    break;
+                }
+                if (c != ',') {
+                    throw error("expected ',' between cards");
+                }
+            }
+        } else {
+            read();
+        }
+        line++;
+        into.upCard = readCard();
+        endLine();
+        into.calledColor = COLORS[readWord(COLOR_NAMES, "color")];
+        endLine();
+        into.validPlays = 0;
+        while (true) {
+            int index = readInt();
+            if (index >= 0) {
+                if (index >= into.handSize) {
+                    throw error("valid play " + index + " is not in the hand");
+                }
+                into.validPlays |= 1L << index;
+            }
+            c = read();
+            if (c == '\n' || c == -1) {
+                break;
+            }
+            if (c != ',') {
+                throw error("expected ',' between valid plays");
+            }
+        }
+        line++;
+        // consume --------- delimiter
+        do {
+            c = read();
+        } while (c != '\n' && c != -1);
+        line++;
+        return true;
+    }
+
+    private int readCard() throws IOException {
+        Color color = COLORS[readWord(COLOR_NAMES, "color")];
+        skipSpaces();
+        Rank rank = RANKS[readWord(RANK_NAMES, "rank")];
+        skipSpaces();
+        int number = readInt();
+        try {
+            return Card.of(color, rank, number).getId();
+        } catch (IllegalArgumentException e) {
+            throw error(e.getMessage());
+        }
+    }
+
+    /**
+     * Read a word and return the index of the name it matches.
+     */
+    private int readWord(byte[][] names, String what) throws IOException {
+        wordLength = 0;
+        int c = peek();
+        while (c >= 'A' && c <= 'Z' || c == '_' || c >= '0' && c <= '9') {
+            if (wordLength == word.length) {
+                throw error("expected a " + what);
+            }
+            word[wordLength++] = (byte) read();
+            c = peek();
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (matches(names[i])) {
+                return i;
+            }
+        }
+        throw error("expected a " + what);
+    }
+
+    private boolean matches(byte[] name) {
+        if (name.length != wordLength) {
+            return false;
+        }
+        for (int i = 0; i < wordLength; i++) {
+            if (name[i] != word[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int readInt() throws IOException {
+        boolean negative = false;
+        if (peek() == '-') {
+            read();
+            negative = true;
+        }
+        int c = peek();
+        if (c < '0' || c > '9') {
+            throw error("expected a number");
+        }
+        int value = 0;
+        while (c >= '0' && c <= '9') {
+            value = value * 10 + (read() - '0');
+            c = peek();
+        }
+        return negative ? -value : value;
+    }
+
+    private void skipSpaces() throws IOException {
+        while (peek() == ' ') {
+            read();
+        }
+    }
+
+    private void endLine() throws IOException {
+        int c = read();
+        if (c != '\n' && c != -1) {
+            throw error("unexpected characters at end of line");
+        }
+        line++;
+    }
+
+    /**
+     * Return the next byte without consuming it, or -1 at the end of the file.
+     * Carriage returns are skipped, so \r\n line endings read as \n.
+     */
+    private int peek() throws IOException {
+        while (true) {
+            if (!buffer.hasRemaining() && !fill()) {
+                return -1;
+            }
+            int c = buffer.get(buffer.position());
+            if (c != '\r') {
+                return c;
+            }
+            buffer.get();
+        }
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            buffer.get();
+        }
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int n;
+        do {
+            n = channel.read(buffer);
+        } while (n == 0);
+        buffer.flip();
+        return n > 0;
+    }
+
+    private IOException error(String message) {
+        return new IOException("Line " + line + ": " + message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
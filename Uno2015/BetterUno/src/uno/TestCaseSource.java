@@ -0,0 +1,45 @@
+package uno;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A stream of test cases, read one at a time into a TestCase supplied by the
+ * caller. open() picks the right reader for a file: BinaryTestCaseReader for
+ * files in the binary format, and TestCaseReader for the text format of
+ * testCases.txt.
+ *
+ * @since 3.0
+ */
+interface TestCaseSource extends Closeable {
+
+    /**
+     * Read the next case into the TestCase passed.
+     *
+     * @return false if there are no more cases, and true otherwise
+     * @throws IOException If the file cannot be read or is malformed
+     */
+    boolean next(TestCase into) throws IOException;
+
+    /**
+     * Open the test case file passed, in whichever format it is in.
+     */
+    static TestCaseSource open(Path file) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(BinaryTestCaseReader.MAGIC.length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int n = 0;
+            while (n >= 0 && magic.hasRemaining()) {
+                n = channel.read(magic);
+            }
+        }
+        magic.flip();
+        if (magic.equals(ByteBuffer.wrap(BinaryTestCaseReader.MAGIC))) {
+            return new BinaryTestCaseReader(file);
+        }
+        return new TestCaseReader(file);
+    }
+}
@@ -0,0 +1,351 @@
+package uno;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * A tournament between the players of a roster file (in the format of
+ * UnoSimulation.PLAYER_FILENAME), played as matches at tables of TABLE_SIZE
+ * players. Every match is GAMES_PER_MATCH games long, and the players rotate
+ * through the seats of their table so that each sits in every seat equally
+ * often. Every match plays the same sequence of deals, derived from
+ * TOURNAMENT_SEED, so no table is luckier than another.</p>
+ * <p>
+ * Two formats are available:</p>
+ * <ul>
+ * <li>ROUND_ROBIN: every possible table of TABLE_SIZE players plays one
+ * match.</li>
+ * <li>SWISS: SWISS_ROUNDS rounds, in each of which the players are ranked by
+ * rating and seated in tables of neighbours in the ranking, avoiding players
+ * who have already met where possible. When the roster does not divide into
+ * full tables, the lowest-ranked players who have not yet had a bye sit the
+ * round out.</li>
+ * </ul>
+ * <p>
+ * The matches of a round are played in parallel on NUM_THREADS worker
+ * threads. As each match finishes (taken in table order, so a seeded
+ * tournament always comes out the same), the players' Elo ratings are updated:
+ * every pair at the table counts as one encounter, which a player scores by
+ * their share of the games the two of them won.</p>
+ *
+ * @since 3.0
+ */
+public class Tournament {
+
+    public enum Format {
+
+        ROUND_ROBIN, SWISS
+    }
+
+    //How the tables are drawn up
+    public static Format FORMAT = Format.ROUND_ROBIN;
+    //How many players sit at each table
+    public static int TABLE_SIZE = 2;
+    //How many games each match lasts
+    public static int GAMES_PER_MATCH = 1000;
+    //How many rounds a Swiss tournament lasts
+    public static int SWISS_ROUNDS = 5;
+    //How many worker threads play matches at once
+    public static int NUM_THREADS = Runtime.getRuntime().availableProcessors();
+    //The seed the deals of every match are derived from
+    public static long TOURNAMENT_SEED = new SplittableRandom().nextLong();
+    //The rating every player starts with
+    public static final double INITIAL_RATING = 1500;
+    //The most one encounter can move a rating
+    public static final double K_FACTOR = 32;
+
+    private final ArrayList<String> playerNames = new ArrayList<>();
+    private final ArrayList<String> playerClasses = new ArrayList<>();
+    private double[] ratings;
+    private int[] matches;
+    private int[] games;
+    private int[] wins;
+    private long[] points;
+    private boolean[][] met;
+    private boolean[] hadBye;
+
+    /**
+     * Run a tournament. The optional command-line arguments are the format
+     * ("roundrobin" or "swiss"), the table size and the number of games per
+     * match, overriding FORMAT, TABLE_SIZE and GAMES_PER_MATCH.
+     */
+    public static void main(String args[]) {
+        if (args.length > 0) {
+            FORMAT = args[0].equalsIgnoreCase("swiss") ? Format.SWISS : Format.ROUND_ROBIN;
+        }
+        if (args.length > 1) {
+            TABLE_SIZE = Integer.parseInt(args[1]);
+        }
+        if (args.length > 2) {
+            GAMES_PER_MATCH = Integer.parseInt(args[2]);
+        }
+        new Tournament().run();
+    }
+
+    /**
+     * Play the whole tournament and print the final ranking.
+     */
+    public void run() {
+        try {
+            PlayerFactory.setShareStateless(UnoSimulation.SHARE_STATELESS_PLAYERS);
+            UnoSimulation.loadPlayerData(UnoSimulation.PLAYER_FILENAME, playerNames, playerClasses);
+            int n = playerNames.size();
+            if (TABLE_SIZE < 2 || TABLE_SIZE > n) {
+                System.out.println("Cannot seat " + n + " players at tables of " + TABLE_SIZE);
+                return;
+            }
+            ratings = new double[n];
+            Arrays.fill(ratings, INITIAL_RATING);
+            matches = new int[n];
+            games = new int[n];
+            wins = new int[n];
+            points = new long[n];
+            met = new boolean[n][n];
+            hadBye = new boolean[n];
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, NUM_THREADS));
+            try {
+                if (FORMAT == Format.ROUND_ROBIN) {
+                    playRound(pool, roundRobinTables(n, TABLE_SIZE));
+                } else {
+                    for (int round = 1; round <= SWISS_ROUNDS; round++) {
+                        playRound(pool, swissTables());
+                        System.out.println("After round " + round + ":");
+                        display();
+                    }
+                }
+            } finally {
+                pool.shutdown();
+            }
+            if (FORMAT == Format.ROUND_ROBIN) {
+                display();
+            }
+            System.out.println("(tournament seed " + TOURNAMENT_SEED + ")");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Return every table of tableSize of the players 0 to n-1, as ascending
+     * lists of player numbers, in lexicographic order.
+     */
+    static List<int[]> roundRobinTables(int n, int tableSize) {
+        List<int[]> tables = new ArrayList<>();
+        int[] table = new int[tableSize];
+        for (int i = 0; i < tableSize; i++) {
+            table[i] = i;
+        }
+        while (true) {
+            tables.add(table.clone());
+            int i = tableSize - 1;
+            while (i >= 0 && table[i] == n - tableSize + i) {
+                i--;
+            }
+            if (i < 0) {
+                return tables;
+            }
+            table[i]++;
+            for (int j = i + 1; j < tableSize; j++) {
+                table[j] = table[j - 1] + 1;
+            }
+        }
+    }
+
+    /**
+     * Draw up the tables of the next Swiss round. If the players do not divide
+     * into full tables, the byes go first, to the lowest-ranked players who
+     * have not had one yet (once everyone has had a bye, the count starts
+     * over), so the same players do not sit out round after round. Then, going
+     * down the ranking, each table is started by the best player not yet
+     * seated and filled with the next best players who have met no one at the
+     * table yet, or, if there are not enough of those, with the next best
+     * players regardless.
+     */
+    private List<int[]> swissTables() {
+        int n = playerNames.size();
+        Integer[] ranking = ranking();
+        // A player with a bye counts as seated, so no table takes them
+        boolean[] seated = new boolean[n];
+        int byes = n % TABLE_SIZE;
+        for (int r = n - 1; r >= 0 && byes > 0; r--) {
+            if (!hadBye[ranking[r]]) {
+                seated[ranking[r]] = true;
+                byes--;
+            }
+        }
+        if (byes > 0) {
+            Arrays.fill(hadBye, false);
+            for (int r = n - 1; r >= 0 && byes > 0; r--) {
+                if (!seated[ranking[r]]) {
+                    seated[ranking[r]] = true;
+                    byes--;
+                }
+            }
+        }
+        for (int p = 0; p < n; p++) {
+            if (seated[p]) {
+                hadBye[p] = true;
+            }
+        }
+        List<int[]> tables = new ArrayList<>();
+        for (int t = 0; t < n / TABLE_SIZE; t++) {
+            int[] table = new int[TABLE_SIZE];
+            int size = 0;
+            for (int pass = 0; pass < 2 && size < TABLE_SIZE; pass++) {
+                for (int r = 0; r < n && size < TABLE_SIZE; r++) {
+                    int p = ranking[r];
+                    if (!seated[p] && (pass == 1 || !hasMetAny(p, table, size))) {
+                        seated[p] = true;
+                        table[size++] = p;
+                    }
+                }
+            }
+            tables.add(table);
+        }
+        return tables;
+    }
+
+    private boolean hasMetAny(int player, int[] table, int size) {
+        for (int i = 0; i < size; i++) {
+            if (met[player][table[i]]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Play one match at each of the tables passed, in parallel, and record
+     * each result, in table order, as it becomes available.
+     */
+    private void playRound(ExecutorService pool, List<int[]> tables) throws Exception {
+        ArrayDeque<Future<Scoreboard>> inFlight = new ArrayDeque<>();
+        ArrayDeque<int[]> inFlightTables = new ArrayDeque<>();
+        int maxInFlight = 2 * Math.max(1, NUM_THREADS);
+        for (final int[] table : tables) {
+            inFlight.add(pool.submit(new Callable<Scoreboard>() {
+                @Override
+                public Scoreboard call() {
+                    return playMatch(table);
+                }
+            }));
+            inFlightTables.add(table);
+            if (inFlight.size() >= maxInFlight) {
+                recordMatch(inFlightTables.poll(), inFlight.poll().get());
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            recordMatch(inFlightTables.poll(), inFlight.poll().get());
+        }
+    }
+
+    /**
+     * Play the match of one table, and return its Scoreboard, on which the
+     * players are numbered by their position in the table.
+     */
+    private Scoreboard playMatch(int[] table) {
+        int k = table.length;
+        Scoreboard tally = new Scoreboard(k);
+        for (int rotation = 0; rotation < k; rotation++) {
+            ArrayList<String> names = new ArrayList<>();
+            ArrayList<String> classes = new ArrayList<>();
+            for (int seat = 0; seat < k; seat++) {
+                int p = table[(seat + rotation) % k];
+                names.add(playerNames.get(p));
+                classes.add(playerClasses.get(p));
+            }
+            Game g = null;
+            for (int i = rotation; i < GAMES_PER_MATCH; i += k) {
+                long seed = UnoSimulation.seedForGame(TOURNAMENT_SEED, i);
+                if (g == null) {
+                    g = new Game(names, classes, new SplittableRandom(seed));
+                    g.setScoringPolicy(UnoSimulation.SCORING);
+                    if (UnoSimulation.DECISION_BUDGET_MICROS > 0) {
+                        g.timeDecisions(UnoSimulation.DECISION_BUDGET_MICROS * 1000, UnoSimulation.OVER_BUDGET);
+                    }
+                } else {
+                    g.reset(seed);
+                }
+                Victory v = g.play();
+                tally.record(new Victory((v.winningPlayer + rotation) % k, v.score));
+            }
+        }
+        return tally;
+    }
+
+    /**
+     * Add the result of one match to the players' totals and ratings.
+     */
+    private void recordMatch(int[] table, Scoreboard result) {
+        int k = table.length;
+        double[] change = new double[k];
+        for (int i = 0; i < k; i++) {
+            for (int j = i + 1; j < k; j++) {
+                int a = table[i];
+                int b = table[j];
+                met[a][b] = met[b][a] = true;
+                int decided = result.getWins(i) + result.getWins(j);
+                double score = decided == 0 ? 0.5 : (double) result.getWins(i) / decided;
+                double expected = 1 / (1 + Math.pow(10, (ratings[b] - ratings[a]) / 400));
+                // Spread K over the k-1 encounters of each player
+                double delta = K_FACTOR / (k - 1) * (score - expected);
+                change[i] += delta;
+                change[j] -= delta;
+            }
+        }
+        for (int i = 0; i < k; i++) {
+            int p = table[i];
+            ratings[p] += change[i];
+            matches[p]++;
+            games[p] += result.getNumGames();
+            wins[p] += result.getWins(i);
+            points[p] += result.getScore(i);
+        }
+    }
+
+    /**
+     * Return the players' numbers, best rating first (ties in roster order).
+     */
+    private Integer[] ranking() {
+        Integer[] ranking = new Integer[playerNames.size()];
+        for (int i = 0; i < ranking.length; i++) {
+            ranking[i] = i;
+        }
+        Arrays.sort(ranking, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(ratings[b], ratings[a]);
+            }
+        });
+        return ranking;
+    }
+
+    public void display() {
+        int maxNameLength = 0;
+        for (String s : playerNames) {
+            maxNameLength = Math.max(maxNameLength, s.length());
+        }
+        Integer[] ranking = ranking();
+        for (int r = 0; r < ranking.length; r++) {
+            int p = ranking[r];
+            String toPrint = (r + 1) + ". " + playerNames.get(p) + ":  ";
+            for (int j = playerNames.get(p).length(); j < maxNameLength; j++) {
+                toPrint += " ";
+            }
+            toPrint += Math.round(ratings[p]) + " (" + matches[p] + " matches, " + wins[p] + "/" + games[p] + " games won";
+            if (UnoSimulation.USE_SCORE) {
+                toPrint += ", " + points[p] + " points";
+            }
+            System.out.println(toPrint + ")");
+        }
+    }
+}
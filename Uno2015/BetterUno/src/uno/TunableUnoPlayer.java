@@ -0,0 +1,43 @@
+package uno;
+
+/**
+ * <p>
+ * A strategy whose behaviour depends on numeric parameters that Tuner can
+ * search for the best values of. A strategy lists its parameters, each with
+ * the range it may take and the value it plays with by default, and accepts a
+ * set of values, in the same order, before its first decision of a game.</p>
+ *
+ * @since 3.0
+ */
+public interface TunableUnoPlayer extends UnoPlayer {
+
+    /**
+     * The description of one parameter: its name, the range of values it may
+     * take, and its default value.
+     */
+    public static final class Parameter {
+
+        public final String name;
+        public final double min;
+        public final double max;
+        public final double defaultValue;
+
+        public Parameter(String name, double min, double max, double defaultValue) {
+            this.name = name;
+            this.min = min;
+            this.max = max;
+            this.defaultValue = defaultValue;
+        }
+    }
+
+    /**
+     * Return the descriptions of this strategy's parameters.
+     */
+    public Parameter[] getParameters();
+
+    /**
+     * Make this strategy play with the parameter values passed, in the order
+     * of getParameters().
+     */
+    public void setParameters(double[] values);
+}
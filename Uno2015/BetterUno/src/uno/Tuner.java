@@ -0,0 +1,333 @@
+package uno;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * Searches for the best parameters of a TunableUnoPlayer strategy. Each
+ * candidate set of parameters is evaluated by seating the strategy, playing
+ * with those parameters, at a table with the players of the roster file (in
+ * the format of UnoSimulation.PLAYER_FILENAME) for GAMES_PER_CANDIDATE games,
+ * rotating the seats as in a Tournament match. The candidate's fitness is the
+ * tuned player's points per game if UnoSimulation.USE_SCORE is on, and
+ * otherwise its win rate.</p>
+ * <p>
+ * Every candidate plays the same games: game i is dealt from the seed derived
+ * from TUNING_SEED and i. Candidates are compared on common random numbers,
+ * so the differences between them come from their parameters rather than from
+ * the luck of their deals. The games of every candidate of a batch (the whole
+ * grid, all the random candidates, or one generation) are split into chunks
+ * of CHUNK_SIZE and played on NUM_THREADS worker threads, each reusing its
+ * Games.</p>
+ * <p>
+ * Three methods are available:</p>
+ * <ul>
+ * <li>GRID: every combination of GRID_STEPS evenly spaced values of each
+ * parameter across its range.</li>
+ * <li>RANDOM: RANDOM_CANDIDATES candidates drawn uniformly from the
+ * ranges.</li>
+ * <li>EVOLUTION: GENERATIONS generations of POPULATION candidates drawn from
+ * a normal distribution around the current mean, starting from the defaults,
+ * with a separate spread for each parameter. After each generation, the mean
+ * moves to the weighted mean of the better half, and each spread to the
+ * weighted spread of the better half around the old mean (the rank-mu update
+ * of CMA-ES, keeping only the diagonal of the covariance).</li>
+ * </ul>
+ * <p>
+ * Candidates are printed as they are evaluated, and the best at the
+ * end.</p>
+ *
+ * @since 3.0
+ */
+public class Tuner {
+
+    public enum Method {
+
+        GRID, RANDOM, EVOLUTION
+    }
+
+    //How candidates are chosen
+    public static Method METHOD = Method.EVOLUTION;
+    //The prefix of the class name of the strategy to tune
+    public static String TUNED_PLAYER = "TeamNumeroUno";
+    //How many games each candidate plays
+    public static int GAMES_PER_CANDIDATE = 10000;
+    //How many values of each parameter a grid search tries
+    public static int GRID_STEPS = 5;
+    //How many candidates a random search tries
+    public static int RANDOM_CANDIDATES = 50;
+    //How many candidates each generation of an evolutionary search tries
+    public static int POPULATION = 16;
+    //How many generations an evolutionary search lasts
+    public static int GENERATIONS = 10;
+    //How many consecutive games of a candidate a worker plays as one task
+    public static int CHUNK_SIZE = 1000;
+    //How many worker threads play games at once
+    public static int NUM_THREADS = Runtime.getRuntime().availableProcessors();
+    //The seed the games of every candidate, and the random candidates, are derived from
+    public static long TUNING_SEED = new SplittableRandom().nextLong();
+    //The normal quantile of a two-sided 95% confidence interval
+    private static final double Z_95 = 1.959964;
+
+    private final ArrayList<String> playerNames = new ArrayList<>();
+    private final ArrayList<String> playerClasses = new ArrayList<>();
+    private PlayerFactory tunedFactory;
+    private TunableUnoPlayer.Parameter[] parameters;
+    private final ThreadLocal<Game[]> workerGames = new ThreadLocal<>();
+    private double[] best;
+    private double bestFitness = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Run a search. The optional command-line arguments are the method
+     * ("grid", "random" or "evolution"), the prefix of the class of the
+     * strategy to tune and the number of games per candidate, overriding
+     * METHOD, TUNED_PLAYER and GAMES_PER_CANDIDATE.
+     */
+    public static void main(String args[]) {
+        if (args.length > 0) {
+            METHOD = Method.valueOf(args[0].toUpperCase());
+        }
+        if (args.length > 1) {
+            TUNED_PLAYER = args[1];
+        }
+        if (args.length > 2) {
+            GAMES_PER_CANDIDATE = Integer.parseInt(args[2]);
+        }
+        new Tuner().run();
+    }
+
+    /**
+     * Run the whole search and print the best candidate found.
+     */
+    public void run() {
+        try {
+            PlayerFactory.setShareStateless(UnoSimulation.SHARE_STATELESS_PLAYERS);
+            UnoSimulation.loadPlayerData(UnoSimulation.PLAYER_FILENAME, playerNames, playerClasses);
+            playerNames.add(0, TUNED_PLAYER + " (tuned)");
+            playerClasses.add(0, "uno." + TUNED_PLAYER + "_UnoPlayer");
+            tunedFactory = PlayerFactory.forClass(playerClasses.get(0));
+            UnoPlayer sample = tunedFactory.newPlayer();
+            if (!(sample instanceof TunableUnoPlayer)) {
+                System.out.println(playerClasses.get(0) + " is not a TunableUnoPlayer.");
+                return;
+            }
+            parameters = ((TunableUnoPlayer) sample).getParameters();
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, NUM_THREADS));
+            try {
+                switch (METHOD) {
+                    case GRID:
+                        evaluate(pool, gridCandidates());
+                        break;
+                    case RANDOM:
+                        evaluate(pool, randomCandidates());
+                        break;
+                    case EVOLUTION:
+                        evolve(pool);
+                        break;
+                }
+            } finally {
+                pool.shutdown();
+            }
+            System.out.println("Best: " + describe(best) + String.format(": %.4f", bestFitness));
+            System.out.println("(tuning seed " + TUNING_SEED + ")");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Return every combination of GRID_STEPS values of each parameter.
+     */
+    private List<double[]> gridCandidates() {
+        List<double[]> candidates = new ArrayList<>();
+        int steps = Math.max(2, GRID_STEPS);
+        int[] step = new int[parameters.length];
+        while (true) {
+            double[] candidate = new double[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                candidate[i] = parameters[i].min + (parameters[i].max - parameters[i].min) * step[i] / (steps - 1);
+            }
+            candidates.add(candidate);
+            int i = parameters.length - 1;
+            while (i >= 0 && step[i] == steps - 1) {
+                step[i--] = 0;
+            }
+            if (i < 0) {
+                return candidates;
+            }
+            step[i]++;
+        }
+    }
+
+    private List<double[]> randomCandidates() {
+        Random rand = new Random(TUNING_SEED);
+        List<double[]> candidates = new ArrayList<>();
+        for (int c = 0; c < RANDOM_CANDIDATES; c++) {
+            double[] candidate = new double[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                candidate[i] = parameters[i].min + (parameters[i].max - parameters[i].min) * rand.nextDouble();
+            }
+            candidates.add(candidate);
+        }
+        return candidates;
+    }
+
+    private void evolve(ExecutorService pool) throws Exception {
+        Random rand = new Random(TUNING_SEED);
+        int n = parameters.length;
+        double[] mean = new double[n];
+        double[] sigma = new double[n];
+        for (int i = 0; i < n; i++) {
+            mean[i] = parameters[i].defaultValue;
+            sigma[i] = (parameters[i].max - parameters[i].min) / 4;
+        }
+        // Log-decreasing weights for the better half of each generation
+        int mu = Math.max(1, POPULATION / 2);
+        double[] weights = new double[mu];
+        double weightSum = 0;
+        for (int j = 0; j < mu; j++) {
+            weights[j] = Math.log(mu + 0.5) - Math.log(j + 1);
+            weightSum += weights[j];
+        }
+        for (int j = 0; j < mu; j++) {
+            weights[j] /= weightSum;
+        }
+        for (int gen = 1; gen <= GENERATIONS; gen++) {
+            System.out.println("Generation " + gen + " around " + describe(mean) + ":");
+            final List<double[]> candidates = new ArrayList<>();
+            for (int c = 0; c < POPULATION; c++) {
+                double[] candidate = new double[n];
+                for (int i = 0; i < n; i++) {
+                    candidate[i] = Math.min(parameters[i].max,
+                            Math.max(parameters[i].min, mean[i] + sigma[i] * rand.nextGaussian()));
+                }
+                candidates.add(candidate);
+            }
+            final double[] fitness = evaluate(pool, candidates);
+            Integer[] order = new Integer[candidates.size()];
+            for (int c = 0; c < order.length; c++) {
+                order[c] = c;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer a, Integer b) {
+                    return Double.compare(fitness[b], fitness[a]);
+                }
+            });
+            double[] newMean = new double[n];
+            double[] spread = new double[n];
+            for (int j = 0; j < mu && j < order.length; j++) {
+                double[] x = candidates.get(order[j]);
+                for (int i = 0; i < n; i++) {
+                    newMean[i] += weights[j] * x[i];
+                    spread[i] += weights[j] * (x[i] - mean[i]) * (x[i] - mean[i]);
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                sigma[i] = Math.max(Math.sqrt(spread[i]), 1e-3 * (parameters[i].max - parameters[i].min));
+            }
+            mean = newMean;
+        }
+        System.out.println("Final mean:");
+        evaluate(pool, Arrays.asList(mean));
+    }
+
+    /**
+     * Evaluate the candidates passed, print each one's result in order, and
+     * return their fitnesses.
+     */
+    private double[] evaluate(ExecutorService pool, List<double[]> candidates) throws Exception {
+        List<List<Future<Scoreboard>>> chunks = new ArrayList<>();
+        for (final double[] candidate : candidates) {
+            List<Future<Scoreboard>> candidateChunks = new ArrayList<>();
+            for (int first = 0; first < GAMES_PER_CANDIDATE; first += CHUNK_SIZE) {
+                final int firstGame = first;
+                final int numGames = Math.min(CHUNK_SIZE, GAMES_PER_CANDIDATE - first);
+                candidateChunks.add(pool.submit(new Callable<Scoreboard>() {
+                    @Override
+                    public Scoreboard call() {
+                        return playGames(candidate, firstGame, numGames);
+                    }
+                }));
+            }
+            chunks.add(candidateChunks);
+        }
+        double[] fitness = new double[candidates.size()];
+        for (int c = 0; c < candidates.size(); c++) {
+            Scoreboard tally = new Scoreboard(playerNames.size());
+            for (Future<Scoreboard> f : chunks.get(c)) {
+                tally.merge(f.get());
+            }
+            boolean byScore = UnoSimulation.USE_SCORE;
+            fitness[c] = byScore ? tally.getMeanScore(0) : tally.getWinRate(0);
+            double error = byScore ? tally.getMeanScoreError(0, Z_95) : tally.getWinRateError(0, Z_95);
+            System.out.println("  " + describe(candidates.get(c)) + String.format(": %.4f +/- %.4f", fitness[c], error));
+            if (fitness[c] > bestFitness) {
+                bestFitness = fitness[c];
+                best = candidates.get(c);
+            }
+        }
+        return fitness;
+    }
+
+    /**
+     * Play a run of consecutive games with the tuned player playing by the
+     * candidate's parameters, and return their tally, on which the tuned
+     * player is number 0. Game i is played in seat rotation i % k of the k
+     * players, on the calling worker's Game for that rotation.
+     */
+    private Scoreboard playGames(double[] candidate, int firstGame, int numGames) {
+        int k = playerNames.size();
+        Scoreboard tally = new Scoreboard(k);
+        Game[] games = workerGames.get();
+        if (games == null) {
+            games = new Game[k];
+            workerGames.set(games);
+        }
+        for (int i = firstGame; i < firstGame + numGames; i++) {
+            int rotation = i % k;
+            long seed = UnoSimulation.seedForGame(TUNING_SEED, i);
+            Game g = games[rotation];
+            if (g == null) {
+                ArrayList<String> names = new ArrayList<>();
+                ArrayList<String> classes = new ArrayList<>();
+                for (int seat = 0; seat < k; seat++) {
+                    names.add(playerNames.get((seat + rotation) % k));
+                    classes.add(playerClasses.get((seat + rotation) % k));
+                }
+                g = new Game(names, classes, new SplittableRandom(seed));
+                g.setScoringPolicy(UnoSimulation.SCORING);
+                games[rotation] = g;
+            } else {
+                g.reset(seed);
+            }
+            // The tuned player, number 0, sits where (seat + rotation) % k == 0
+            TunableUnoPlayer tuned = (TunableUnoPlayer) tunedFactory.newPlayer();
+            tuned.setParameters(candidate);
+            g.setPlayerAt((k - rotation) % k, tuned);
+            Victory v = g.play();
+            tally.record(new Victory((v.winningPlayer + rotation) % k, v.score));
+        }
+        return tally;
+    }
+
+    private String describe(double[] candidate) {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                s.append(", ");
+            }
+            s.append(parameters[i].name).append(String.format(" = %.3f", candidate[i]));
+        }
+        return s.toString();
+    }
+}
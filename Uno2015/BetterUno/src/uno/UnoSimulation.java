@@ -1,7 +1,16 @@
 package uno;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.io.BufferedReader;
 import java.io.FileReader;
 
@@ -13,8 +22,14 @@ import java.io.FileReader;
  */
 public class UnoSimulation {
 
-    //How many games to be played
+    //How many games to be played (at most, if the match can stop early)
     public static final int NUM_GAMES = 100000;
+    //Stop the match once the leader's advantage is significant at this p-value (0 to always play NUM_GAMES)
+    public static double STOP_P_VALUE = 0.01;
+    //How many games the match plays before it first tests whether to stop
+    public static int MIN_GAMES = 1000;
+    //How many consecutive games a worker plays as one task; the stopping rule is tested after every chunk
+    public static int CHUNK_SIZE = 1000;
     //Whether text appears when running matches (turn OFF when running large a large trial)
     public static boolean PRINT_VERBOSE = false;
     //Whether to print the color of the card as a letter or as a color on the screen
@@ -23,6 +38,26 @@ public class UnoSimulation {
     public static final int INIT_HAND_SIZE = 7;
     //Whether to count score or just rounds won
     public static final boolean USE_SCORE = true;
+    //How the winner of each game is scored (STANDARD, WINS, or any other ScoringPolicy)
+    public static ScoringPolicy SCORING = ScoringPolicy.STANDARD;
+    //Whether to play a duplicate match, replaying every deal with the players in every order of seats
+    public static boolean DUPLICATE_DEALS = false;
+    //The most seatings a duplicate deal is played in: every order of seats if there are no more than this, else every rotation in both directions
+    public static int MAX_DUPLICATE_SEATINGS = 24;
+    //Whether to time every decision of every player, for display() to report (costs fast strategies some speed; a budget times decisions regardless)
+    public static boolean TIME_DECISIONS = false;
+    //The longest a player may take over one decision, in microseconds (0 for no limit)
+    public static long DECISION_BUDGET_MICROS = 0;
+    //What becomes of a decision that goes over DECISION_BUDGET_MICROS
+    public static Game.OverBudget OVER_BUDGET = Game.OverBudget.DEFAULT_MOVE;
+    //Whether to publish running totals of the match over JMX (see MatchMetrics), to watch from JConsole
+    public static boolean PUBLISH_METRICS = true;
+    //How many worker threads share the games of a match (forced to 1 when PRINT_VERBOSE is on)
+    public static int NUM_THREADS = Runtime.getRuntime().availableProcessors();
+    //Whether strategies that implement StatelessUnoPlayer share one instance for the whole match
+    public static boolean SHARE_STATELESS_PLAYERS = false;
+    //The seed every game's random source is derived from (set it to replay a match exactly)
+    public static long MATCH_SEED = new SplittableRandom().nextLong();
     /**
      * <p>
      * The name of a file (relative to working directory) containing
@@ -43,8 +78,14 @@ public class UnoSimulation {
     public static final String PLAYER_FILENAME = "players.txt";
     private ArrayList<String> playerNames = new ArrayList();
     private ArrayList<String> playerClasses = new ArrayList();
-    private ArrayList<Integer> playerWins = new ArrayList();
-    private ArrayList<Integer> playerScores = new ArrayList();
+    private Scoreboard scoreboard;
+    private boolean stoppedEarly;
+    private int[][] seatings;
+    private MatchMetrics metrics;
+    private final ThreadLocal<Game[]> workerGames = new ThreadLocal<>();
+    private static final GameListener CONSOLE = new ConsoleGameListener();
+    //The normal quantile of a two-sided 95% confidence interval
+    private static final double Z_95 = 1.959964;
 
     /**
      * Run an Uno simulation of some number of games pitting some set of
@@ -60,14 +101,101 @@ public class UnoSimulation {
         sim.display();
     }
 
+    /**
+     * Play the games of the match. The games are split into chunks of
+     * CHUNK_SIZE consecutive games, which worker threads play as they become
+     * free, each chunk tallied on a Scoreboard of its own. The chunks'
+     * Scoreboards are merged into the match Scoreboard in game order as they
+     * complete, so no state is shared while games are being played. After
+     * each chunk, once MIN_GAMES games are in, the match stops if the leader's
+     * advantage over the runner-up is significant, and otherwise goes on until
+     * NUM_GAMES games have been played. Testing after every chunk gives luck
+     * many chances to look significant, so each test is held to STOP_P_VALUE
+     * divided by the number of tests the match could run: the chance of
+     * stopping on a leader who is not really better stays below
+     * STOP_P_VALUE. Because the chunks are merged in order, a seeded match
+     * stops at the same game no matter how many threads play it.
+     * <p>
+     * In a duplicate match (DUPLICATE_DEALS), every deal is played once in
+     * each of a set of seatings (see seatings()), in which every player gets
+     * every hand, and the luck of the deal cancels out of the comparison. The
+     * players' results are totalled per deal, and each deal counts as one
+     * sample towards the statistics and the stopping rule; NUM_GAMES,
+     * MIN_GAMES and CHUNK_SIZE still count games. A match that NUM_GAMES
+     * leaves room for fewer than two deals is refused, as one deal gives no
+     * measure of the spread.
+     */
     public void run() {
         try {
+            PlayerFactory.setShareStateless(SHARE_STATELESS_PLAYERS);
+            ISMCTS_UnoPlayer.resetReport();
             loadPlayerData();
-            for (int i = 0; i < NUM_GAMES; i++) {
-                Game g = new Game(playerNames, playerClasses);
-                Victory v = g.play();
-                playerWins.set(v.winningPlayer, playerWins.get(v.winningPlayer) + 1);
-                playerScores.set(v.winningPlayer, playerScores.get(v.winningPlayer) + v.score);
+            int numWorkers = PRINT_VERBOSE ? 1 : Math.max(1, NUM_THREADS);
+            scoreboard = new Scoreboard(playerNames.size());
+            stoppedEarly = false;
+            metrics = null;
+            if (DUPLICATE_DEALS) {
+                seatings = seatings(playerNames.size());
+                if (NUM_GAMES / seatings.length < 2) {
+                    System.out.println("Cannot play a duplicate match of " + playerNames.size() + " players: each deal takes "
+                            + seatings.length + " games, and NUM_GAMES (" + NUM_GAMES + ") leaves room for fewer than 2 deals");
+                    return;
+                }
+            } else {
+                seatings = new int[1][playerNames.size()];
+                for (int i = 0; i < playerNames.size(); i++) {
+                    seatings[0][i] = i;
+                }
+            }
+            // A sample is one game, or one deal played in every seating
+            int gamesPerSample = seatings.length;
+            int numSamples = Math.max(1, NUM_GAMES / gamesPerSample);
+            int samplesPerChunk = Math.max(1, CHUNK_SIZE / gamesPerSample);
+            int minSamples = MIN_GAMES / gamesPerSample;
+            // Bonferroni-correct the stopping test for the number of times it may be run
+            int numLooks = Math.max(1, (numSamples - minSamples) / samplesPerChunk + 1);
+            double stopThreshold = STOP_P_VALUE / numLooks;
+            if (PUBLISH_METRICS) {
+                metrics = new MatchMetrics(playerNames, (long) numSamples * gamesPerSample);
+                metrics.publish();
+            }
+            ExecutorService pool = Executors.newFixedThreadPool(numWorkers);
+            try {
+                ArrayDeque<Future<Scoreboard>> inFlight = new ArrayDeque<>();
+                int nextSample = 0;
+                while (true) {
+                    while (inFlight.size() < 2 * numWorkers && nextSample < numSamples) {
+                        final int chunkStart = nextSample;
+                        final int chunkSize = Math.min(samplesPerChunk, numSamples - nextSample);
+                        inFlight.add(pool.submit(new Callable<Scoreboard>() {
+                            @Override
+                            public Scoreboard call() {
+                                Scoreboard chunkScoreboard = new Scoreboard(playerNames.size());
+                                if (DUPLICATE_DEALS) {
+                                    playDeals(chunkStart, chunkSize, chunkScoreboard);
+                                } else {
+                                    playGames(chunkStart, chunkSize, chunkScoreboard);
+                                }
+                                return chunkScoreboard;
+                            }
+                        }));
+                        nextSample += chunkSize;
+                    }
+                    if (inFlight.isEmpty()) {
+                        break;
+                    }
+                    scoreboard.merge(inFlight.poll().get());
+                    if (STOP_P_VALUE > 0 && scoreboard.getNumSamples() >= minSamples
+                            && scoreboard.getNumSamples() < numSamples
+                            && scoreboard.getLeaderPValue(USE_SCORE) < stopThreshold) {
+                        stoppedEarly = true;
+                        break;
+                    }
+                }
+            } finally {
+                // Stop the chunks still in flight, and wait, so none plays on into the next match
+                pool.shutdownNow();
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
             }
             display();
         } catch (Exception e) {
@@ -75,17 +203,206 @@ public class UnoSimulation {
         }
     }
 
+    /**
+     * Play a run of consecutive games on the calling worker's Game, which is
+     * reset for every game after the worker's first.
+     */
+    private void playGames(int firstGame, int numGames, Scoreboard tally) {
+        for (int i = firstGame; i < firstGame + numGames && !Thread.currentThread().isInterrupted(); i++) {
+            Game g = dealGame(0, seedForGame(MATCH_SEED, i));
+            Victory v = g.play();
+            tally.record(v);
+            if (metrics != null) {
+                metrics.recordGame(g, v, seatings[0]);
+            }
+        }
+        collectDecisions(tally);
+    }
+
+    /**
+     * Play a run of consecutive deals, each in every seating, and record each
+     * deal's totals as one sample. Game i of a match and deal i of a duplicate
+     * match are dealt from the same seed.
+     */
+    private void playDeals(int firstDeal, int numDeals, Scoreboard tally) {
+        int[] dealWins = new int[playerNames.size()];
+        long[] dealScores = new long[playerNames.size()];
+        for (int i = firstDeal; i < firstDeal + numDeals && !Thread.currentThread().isInterrupted(); i++) {
+            long seed = seedForGame(MATCH_SEED, i);
+            Arrays.fill(dealWins, 0);
+            Arrays.fill(dealScores, 0);
+            for (int s = 0; s < seatings.length; s++) {
+                Game g = dealGame(s, seed);
+                Victory v = g.play();
+                if (metrics != null) {
+                    metrics.recordGame(g, v, seatings[s]);
+                }
+                int winner = seatings[s][v.winningPlayer];
+                dealWins[winner]++;
+                dealScores[winner] += v.score;
+            }
+            tally.recordDeal(dealWins, dealScores, seatings.length);
+        }
+        collectDecisions(tally);
+    }
+
+    /**
+     * Move the decision times recorded by the hands of the calling worker's
+     * Games onto the Scoreboard passed, credited to the players sitting in
+     * them.
+     */
+    private void collectDecisions(Scoreboard tally) {
+        Game[] games = workerGames.get();
+        for (int s = 0; s < games.length; s++) {
+            if (games[s] == null) {
+                continue;
+            }
+            for (int seat = 0; seat < seatings[s].length; seat++) {
+                Hand h = games[s].getPlayerAt(seat);
+                if (h.getLatency() != null) {
+                    tally.recordDecisions(seatings[s][seat], h.getLatency(), h.takeOverBudgetCount());
+                    h.getLatency().clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the calling worker's Game for the seating passed, dealt from the
+     * seed passed. Each worker keeps one Game per seating, created on first
+     * use and reset after that. Resetting with the same seed deals the same
+     * cards to the same seats, with the same start seat and direction,
+     * whoever sits there.
+     */
+    private Game dealGame(int seating, long seed) {
+        Game[] games = workerGames.get();
+        if (games == null) {
+            games = new Game[seatings.length];
+            workerGames.set(games);
+        }
+        Game g = games[seating];
+        if (g == null) {
+            ArrayList<String> names = new ArrayList<>();
+            ArrayList<String> classes = new ArrayList<>();
+            for (int player : seatings[seating]) {
+                names.add(playerNames.get(player));
+                classes.add(playerClasses.get(player));
+            }
+            g = new Game(names, classes, new SplittableRandom(seed));
+            g.setScoringPolicy(SCORING);
+            if (TIME_DECISIONS || DECISION_BUDGET_MICROS > 0) {
+                g.timeDecisions(DECISION_BUDGET_MICROS * 1000, OVER_BUDGET);
+            }
+            if (PRINT_VERBOSE) {
+                g.setListener(CONSOLE);
+            }
+            games[seating] = g;
+        } else {
+            g.reset(seed);
+        }
+        return g;
+    }
+
+    /**
+     * Return the seatings a duplicate deal of the players 0 to n-1 is played
+     * in; entry s of a seating is the player in seat s. If n! is no more than
+     * MAX_DUPLICATE_SEATINGS, these are every order of the players, in
+     * lexicographic order (the first being 0 to n-1 in order), so every
+     * player gets every hand from every seat with every set of neighbours.
+     * Otherwise, they are the n rotations of the players around the table, in
+     * both directions, so every player still gets every hand and sits in
+     * every seat, with 2n games per deal rather than n!.
+     */
+    static int[][] seatings(int n) {
+        long count = 1;
+        for (int i = 2; i <= n && count <= MAX_DUPLICATE_SEATINGS; i++) {
+            count *= i;
+        }
+        if (count > MAX_DUPLICATE_SEATINGS) {
+            return rotations(n);
+        }
+        return permutations(n, (int) count);
+    }
+
+    // Every rotation of the players 0 to n-1, clockwise and then anticlockwise.
+    private static int[][] rotations(int n) {
+        int[][] seatings = new int[2 * n][n];
+        for (int r = 0; r < n; r++) {
+            for (int i = 0; i < n; i++) {
+                seatings[r][i] = (r + i) % n;
+                seatings[n + r][i] = (r - i + n) % n;
+            }
+        }
+        return seatings;
+    }
+
+    // The count orders of the players 0 to n-1, in lexicographic order.
+    private static int[][] permutations(int n, int count) {
+        int[][] seatings = new int[count][];
+        int[] seating = new int[n];
+        for (int i = 0; i < n; i++) {
+            seating[i] = i;
+        }
+        for (int s = 0; s < count; s++) {
+            seatings[s] = seating.clone();
+            // Step to the next permutation
+            int i = n - 2;
+            while (i >= 0 && seating[i] > seating[i + 1]) {
+                i--;
+            }
+            if (i < 0) {
+                break;
+            }
+            int j = n - 1;
+            while (seating[j] < seating[i]) {
+                j--;
+            }
+            int swap = seating[i];
+            seating[i] = seating[j];
+            seating[j] = swap;
+            for (int a = i + 1, b = n - 1; a < b; a++, b--) {
+                swap = seating[a];
+                seating[a] = seating[b];
+                seating[b] = swap;
+            }
+        }
+        return seatings;
+    }
+
+    /**
+     * Derive the seed of one game's random source from the match seed and the
+     * game's index within the match. A game's outcome therefore depends only
+     * on (matchSeed, gameIndex), no matter which worker happens to play it.
+     */
+    static long seedForGame(long matchSeed, long gameIndex) {
+        long z = matchSeed + (gameIndex + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     private void loadPlayerData() throws Exception {
-        BufferedReader br = new BufferedReader(new FileReader(PLAYER_FILENAME));
+        loadPlayerData(PLAYER_FILENAME, playerNames, playerClasses);
+    }
+
+    /**
+     * Read a roster file in the format of PLAYER_FILENAME, adding each
+     * player's name and full class name to the lists passed. Every class is
+     * resolved (see PlayerFactory) as it is read.
+     */
+    static void loadPlayerData(String filename, List<String> playerNames, List<String> playerClasses) throws Exception {
+        BufferedReader br = new BufferedReader(new FileReader(filename));
         String playerLine = br.readLine();
         while (playerLine != null) {
             Scanner line = new Scanner(playerLine).useDelimiter(",");
             playerNames.add(line.next());
-            playerClasses.add("uno." + line.next() + "_UnoPlayer");
-            playerWins.add(0);
-            playerScores.add(0);
+            String playerClass = "uno." + line.next() + "_UnoPlayer";
+            //Resolve the class now, once, rather than in every game
+            PlayerFactory.forClass(playerClass);
+            playerClasses.add(playerClass);
             playerLine = br.readLine();
         }
+        br.close();
     }
 
     public void display() {
@@ -95,25 +412,38 @@ public class UnoSimulation {
                 maxNameLength = s.length();
             }
         }
-        int totalWins = 0;
-        for (int i : playerWins) {
-            totalWins += i;
-        }
-        int totalScore = 0;
-        for (int i : playerScores) {
-            totalScore += i;
-        }
+        int totalWins = scoreboard.getTotalWins();
+        long totalScore = scoreboard.getTotalScore();
         String toPrint = "";
         for (int i = 0; i < playerNames.size(); i++) {
             toPrint += "\n" + playerNames.get(i) + ":  ";
             for (int j = playerNames.get(i).length(); j < maxNameLength; j++) {
                 toPrint += " ";
             }
-            toPrint += playerWins.get(i) + " wins (" + Math.round(playerWins.get(i) * 100. / totalWins) + "%)";
+            toPrint += scoreboard.getWins(i) + " wins (" + Math.round(scoreboard.getWins(i) * 100. / totalWins) + "%"
+                    + String.format(", %.1f%% +/- %.1f%%)", scoreboard.getWinRate(i) * 100, scoreboard.getWinRateError(i, Z_95) * 100);
             if (USE_SCORE) {
-                toPrint += "  " + playerScores.get(i) + " points (" + Math.round(playerScores.get(i) * 100. / totalScore) + "%)";
+                toPrint += "  " + scoreboard.getScore(i) + " points (" + Math.round(scoreboard.getScore(i) * 100. / totalScore) + "%"
+                        + String.format(", %.3f +/- %.3f per game)", scoreboard.getMeanScore(i), scoreboard.getMeanScoreError(i, Z_95));
+            }
+            LatencyHistogram latency = scoreboard.getDecisionLatency(i);
+            if (latency != null) {
+                toPrint += "  decisions: p50 " + LatencyHistogram.format(latency.getPercentile(0.5))
+                        + ", p99 " + LatencyHistogram.format(latency.getPercentile(0.99))
+                        + ", max " + LatencyHistogram.format(latency.getMax());
+                if (DECISION_BUDGET_MICROS > 0) {
+                    toPrint += ", " + scoreboard.getOverBudget(i) + " over budget";
+                }
             }
         }
         System.out.println(toPrint);
+        String deals = DUPLICATE_DEALS ? String.format(" on %d deals, each in %d seatings", scoreboard.getNumSamples(), seatings.length) : "";
+        System.out.println(String.format("(%d games%s%s; leader ahead at p = %.2g; intervals are 95%%)",
+                scoreboard.getNumGames(), deals, stoppedEarly ? ", stopped early" : "", scoreboard.getLeaderPValue(USE_SCORE)));
+        System.out.println("(match seed " + MATCH_SEED + ")");
+        String search = ISMCTS_UnoPlayer.report();
+        if (search != null) {
+            System.out.println(search);
+        }
     }
 }